@@ -0,0 +1,44 @@
+package cloud.quinimbus.common.annotations.modelling;
+
+import java.util.Locale;
+
+/// The naming rules of record types, shared by the annotation processors writing record descriptors at build time and
+/// the tools deriving the names at runtime, so both always agree on the id and plural of a type.
+public final class RecordNames {
+
+    private RecordNames() {}
+
+    /// Derives the id of a type from its simple name.
+    ///
+    /// @param simpleName the simple name of the type
+    /// @return the simple name starting lowercase
+    public static String idFromSimpleName(String simpleName) {
+        return simpleName.substring(0, 1).toLowerCase(Locale.US) + simpleName.substring(1);
+    }
+
+    /// Derives the plural of an id.
+    ///
+    /// @param id the id
+    /// @return the id ending with `ies` instead of `y`, otherwise with an appended `s`
+    public static String plural(String id) {
+        if (id.endsWith("y")) {
+            return id.substring(0, id.length() - 1).concat("ies");
+        } else {
+            return id.concat("s");
+        }
+    }
+
+    /// Derives the singular of an id, the inverse of [#plural(String)].
+    ///
+    /// @param id the plural id
+    /// @return the id ending with `y` instead of `ies`, otherwise without a trailing `s`
+    public static String singular(String id) {
+        if (id.endsWith("ies")) {
+            return id.substring(0, id.length() - 3).concat("y");
+        }
+        if (id.endsWith("s")) {
+            return id.substring(0, id.length() - 1);
+        }
+        return id;
+    }
+}
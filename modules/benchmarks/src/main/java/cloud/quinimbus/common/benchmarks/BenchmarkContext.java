@@ -0,0 +1,15 @@
+package cloud.quinimbus.common.benchmarks;
+
+/// Context type loaded through the `SingletonContextLoader` in [SingletonContextLoaderBenchmark].
+public interface BenchmarkContext {
+
+    String name();
+
+    class Default implements BenchmarkContext {
+
+        @Override
+        public String name() {
+            return "default";
+        }
+    }
+}
@@ -0,0 +1,3 @@
+package cloud.quinimbus.common.benchmarks;
+
+public record BenchmarkRecord(String name, int count, long timestamp, double score) {}
@@ -0,0 +1,4 @@
+package cloud.quinimbus.common.benchmarks;
+
+/// Service interface implemented by the providers generated in [SyntheticProviders].
+public interface BenchmarkSpi {}
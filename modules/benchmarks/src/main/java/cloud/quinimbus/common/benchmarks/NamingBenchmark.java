@@ -0,0 +1,46 @@
+package cloud.quinimbus.common.benchmarks;
+
+import cloud.quinimbus.common.tools.Fields;
+import cloud.quinimbus.common.tools.IDs;
+import cloud.quinimbus.common.tools.Records;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NamingBenchmark {
+
+    @Param({"entry", "person"})
+    String id;
+
+    @Benchmark
+    public String toPlural() {
+        return IDs.toPlural(this.id);
+    }
+
+    @Benchmark
+    public String toSingular() {
+        return IDs.toSingular(this.id);
+    }
+
+    @Benchmark
+    public String toGetterName() {
+        return Fields.toGetterName(this.id);
+    }
+
+    @Benchmark
+    public String idFromRecordClass() {
+        return Records.idFromRecordClass(BenchmarkRecord.class);
+    }
+}
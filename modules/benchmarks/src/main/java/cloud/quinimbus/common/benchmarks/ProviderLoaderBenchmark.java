@@ -0,0 +1,64 @@
+package cloud.quinimbus.common.benchmarks;
+
+import cloud.quinimbus.common.tools.ProviderLoader;
+import cloud.quinimbus.tools.function.LazySingletonSupplier;
+import cloud.quinimbus.tools.lang.TypeRef;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.SequencedMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProviderLoaderBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int providers;
+
+    @Param({"false", "true"})
+    boolean aliases;
+
+    @Param({"false", "true"})
+    boolean indexed;
+
+    private SyntheticProviders generated;
+
+    private URLClassLoader classLoader;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.generated = SyntheticProviders.generate(this.providers, this.aliases, this.indexed);
+        this.classLoader = this.generated.classLoader();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ProviderLoader.invalidateCache(this.classLoader);
+        this.generated.close();
+    }
+
+    @Benchmark
+    public SequencedMap<String, LazySingletonSupplier<BenchmarkSpi>> loadProviders() {
+        return ProviderLoader.loadProviders(TypeRef.of(BenchmarkSpi.class), this.classLoader, this.aliases);
+    }
+
+    @Benchmark
+    public SequencedMap<String, LazySingletonSupplier<BenchmarkSpi>> loadCachedProviders() {
+        return ProviderLoader.loadCachedProviders(TypeRef.of(BenchmarkSpi.class), this.classLoader, this.aliases);
+    }
+}
@@ -0,0 +1,64 @@
+package cloud.quinimbus.common.benchmarks;
+
+import cloud.quinimbus.common.tools.Records;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RecordsBenchmark {
+
+    private BenchmarkRecord record;
+
+    private Function<BenchmarkRecord, String> nameGetter;
+
+    private Function<BenchmarkRecord, Integer> countGetter;
+
+    private ToIntFunction<BenchmarkRecord> intCountGetter;
+
+    @Setup
+    public void setup() {
+        this.record = new BenchmarkRecord("name", 42, 4711L, 0.5);
+        this.nameGetter = Records.fieldValueGetter(BenchmarkRecord.class, "name");
+        this.countGetter = Records.fieldValueGetter(BenchmarkRecord.class, "count");
+        this.intCountGetter = Records.intFieldValueGetter(BenchmarkRecord.class, "count");
+    }
+
+    @Benchmark
+    public String directAccess() {
+        return this.record.name();
+    }
+
+    @Benchmark
+    public String fieldValueGetter() {
+        return this.nameGetter.apply(this.record);
+    }
+
+    @Benchmark
+    public Integer fieldValueGetterBoxed() {
+        return this.countGetter.apply(this.record);
+    }
+
+    @Benchmark
+    public int intFieldValueGetter() {
+        return this.intCountGetter.applyAsInt(this.record);
+    }
+
+    @Benchmark
+    public Function<BenchmarkRecord, String> createFieldValueGetter() {
+        return Records.fieldValueGetter(BenchmarkRecord.class, "name");
+    }
+}
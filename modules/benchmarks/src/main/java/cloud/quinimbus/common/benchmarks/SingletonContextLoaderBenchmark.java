@@ -0,0 +1,34 @@
+package cloud.quinimbus.common.benchmarks;
+
+import cloud.quinimbus.common.tools.SingletonContextLoader;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SingletonContextLoaderBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public BenchmarkContext loadContext() {
+        return SingletonContextLoader.loadContext(BenchmarkContext.class, ServiceLoader::load);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BenchmarkContext loadContextContended() {
+        return SingletonContextLoader.loadContext(BenchmarkContext.class, ServiceLoader::load);
+    }
+}
@@ -0,0 +1,106 @@
+package cloud.quinimbus.common.benchmarks;
+
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.INIT_NAME;
+import static java.lang.constant.ConstantDescs.MTD_void;
+
+import cloud.quinimbus.common.annotations.Provider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.classfile.Annotation;
+import java.lang.classfile.AnnotationElement;
+import java.lang.classfile.AnnotationValue;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.attribute.RuntimeVisibleAnnotationsAttribute;
+import java.lang.constant.ClassDesc;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/// Generates `count` implementations of [BenchmarkSpi] annotated with [Provider] into a temporary directory, together
+/// with their `META-INF/services` registration and optionally the provider index, and provides a class loader for them.
+/// Closing the instance closes the class loader and deletes the directory.
+final class SyntheticProviders implements AutoCloseable {
+
+    private static final String PACKAGE = "cloud.quinimbus.common.benchmarks.generated";
+
+    private static final String INDEX_LOCATION = "META-INF/quinimbus/providers/";
+
+    private final Path directory;
+
+    private final URLClassLoader classLoader;
+
+    private SyntheticProviders(Path directory, URLClassLoader classLoader) {
+        this.directory = directory;
+        this.classLoader = classLoader;
+    }
+
+    static SyntheticProviders generate(int count, boolean withAliases, boolean withIndex) {
+        try {
+            var dir = Files.createTempDirectory("synthetic-providers");
+            var services = new ArrayList<String>();
+            var index = new ArrayList<String>();
+            for (int i = 0; i < count; i++) {
+                var className = "%s.Provider%d".formatted(PACKAGE, i);
+                var file = dir.resolve(className.replace('.', '/') + ".class");
+                Files.createDirectories(file.getParent());
+                Files.write(file, providerClass(className, i, withAliases));
+                services.add(className);
+                index.add(withAliases
+                        ? "%s\t%d\tprovider%d\talias%d".formatted(className, i, i, i)
+                        : "%s\t%d\tprovider%d".formatted(className, i, i));
+            }
+            write(dir.resolve("META-INF/services/" + BenchmarkSpi.class.getName()), services);
+            if (withIndex) {
+                write(dir.resolve(INDEX_LOCATION + BenchmarkSpi.class.getName()), index);
+            }
+            var classLoader =
+                    new URLClassLoader(new URL[] {dir.toUri().toURL()}, SyntheticProviders.class.getClassLoader());
+            return new SyntheticProviders(dir, classLoader);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    URLClassLoader classLoader() {
+        return this.classLoader;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.classLoader.close();
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void write(Path file, List<String> lines) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, lines);
+    }
+
+    private static byte[] providerClass(String className, int number, boolean withAliases) {
+        var elements = new ArrayList<AnnotationElement>();
+        elements.add(AnnotationElement.ofString("id", "provider" + number));
+        elements.add(AnnotationElement.ofInt("priority", number));
+        if (withAliases) {
+            elements.add(AnnotationElement.of("alias", AnnotationValue.ofArray(AnnotationValue.ofString("alias" + number))));
+        }
+        var annotation = Annotation.of(ClassDesc.of(Provider.class.getName()), elements);
+        return ClassFile.of().build(ClassDesc.of(className), cb -> cb.withFlags(
+                        ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SUPER)
+                .withSuperclass(CD_Object)
+                .withInterfaceSymbols(ClassDesc.of(BenchmarkSpi.class.getName()))
+                .with(RuntimeVisibleAnnotationsAttribute.of(annotation))
+                .withMethodBody(INIT_NAME, MTD_void, ClassFile.ACC_PUBLIC, code -> code.aload(0)
+                        .invokespecial(CD_Object, INIT_NAME, MTD_void)
+                        .return_()));
+    }
+}
@@ -0,0 +1,170 @@
+package cloud.quinimbus.common.processor;
+
+import cloud.quinimbus.common.annotations.business.Action;
+import cloud.quinimbus.common.annotations.business.RecordEntityInstanceContext;
+import cloud.quinimbus.common.annotations.business.RecordTypeContext;
+import cloud.quinimbus.common.annotations.security.ActionRolesAllowed;
+import cloud.quinimbus.common.annotations.security.CRUDRolesAllowed;
+import cloud.quinimbus.common.annotations.security.Permissions;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/// Writes a build-time access table for every record type with permissions declared by [CRUDRolesAllowed] or
+/// [ActionRolesAllowed], so that `cloud.quinimbus.common.tools.AccessTables` can check permissions at runtime although
+/// the annotations are not retained.
+///
+/// For every record type one resource `META-INF/quinimbus/access/<binary name of the record>` is written. Each line
+/// describes the permission of one operation as tab separated values: the operation (`create`, `read`, `update`,
+/// `delete` or `action:<name>`), the [Permissions.Type] and the allowed roles. Lines starting with `#` are comments.
+///
+/// The record type of an action is taken from the [RecordTypeContext] or [RecordEntityInstanceContext] annotation of
+/// the action method, the action name from its [Action] annotation.
+///
+/// @since 0.2
+@SupportedAnnotationTypes({
+    "cloud.quinimbus.common.annotations.security.CRUDRolesAllowed",
+    "cloud.quinimbus.common.annotations.security.ActionRolesAllowed"
+})
+public class AccessTableProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/quinimbus/access/";
+
+    private final SortedMap<String, SortedMap<String, String>> tables = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            this.writeTables();
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(CRUDRolesAllowed.class)) {
+            if (element.getKind() != ElementKind.RECORD) {
+                this.error("@CRUDRolesAllowed is only allowed on records", element);
+                continue;
+            }
+            var recordType = this.binaryName((TypeElement) element);
+            var allowed = element.getAnnotation(CRUDRolesAllowed.class);
+            this.add(recordType, "create", allowed.create(), element);
+            this.add(recordType, "read", allowed.read(), element);
+            this.add(recordType, "update", allowed.update(), element);
+            this.add(recordType, "delete", allowed.delete(), element);
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(ActionRolesAllowed.class)) {
+            var action = element.getAnnotation(Action.class);
+            var typeContext = element.getAnnotation(RecordTypeContext.class);
+            var instanceContext = element.getAnnotation(RecordEntityInstanceContext.class);
+            if (action == null || (typeContext == null) == (instanceContext == null)) {
+                this.error(
+                        "@ActionRolesAllowed requires @Action and either @RecordTypeContext or"
+                                + " @RecordEntityInstanceContext",
+                        element);
+                continue;
+            }
+            var recordType = typeContext != null
+                    ? this.classValue(typeContext::value)
+                    : this.classValue(instanceContext::value);
+            this.add(
+                    recordType,
+                    "action:" + action.value(),
+                    element.getAnnotation(ActionRolesAllowed.class).call(),
+                    element);
+        }
+        return false;
+    }
+
+    private void add(String recordType, String operation, Permissions permissions, Element element) {
+        var line = new StringBuilder()
+                .append(operation)
+                .append('\t')
+                .append(permissions.value().name());
+        for (var role : permissions.roles()) {
+            line.append('\t').append(role);
+        }
+        var previous = this.tables
+                .computeIfAbsent(recordType, _ -> new TreeMap<>())
+                .putIfAbsent(operation, line.toString());
+        if (previous != null && !previous.contentEquals(line)) {
+            this.error("Conflicting permissions for %s of %s".formatted(operation, recordType), element);
+        }
+    }
+
+    private String classValue(Supplier<Class<?>> value) {
+        try {
+            return value.get().getName();
+        } catch (MirroredTypeException ex) {
+            TypeMirror mirror = ex.getTypeMirror();
+            return this.binaryName((TypeElement) ((DeclaredType) mirror).asElement());
+        }
+    }
+
+    private String binaryName(TypeElement type) {
+        return this.processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void error(String message, Element element) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void writeTables() {
+        var filer = this.processingEnv.getFiler();
+        for (var entry : this.tables.entrySet()) {
+            var resource = INDEX_LOCATION + entry.getKey();
+            var lines = new TreeMap<String, String>();
+            this.readExisting(resource, lines);
+            lines.putAll(entry.getValue());
+            try {
+                FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", resource);
+                try (var writer = new PrintWriter(file.openWriter())) {
+                    writer.println("# Generated by " + AccessTableProcessor.class.getName());
+                    lines.values().forEach(writer::println);
+                }
+            } catch (IOException ex) {
+                this.processingEnv
+                        .getMessager()
+                        .printMessage(
+                                Diagnostic.Kind.ERROR,
+                                "Cannot write access table %s: %s".formatted(resource, ex.getMessage()));
+            }
+        }
+        this.tables.clear();
+    }
+
+    private void readExisting(String resource, SortedMap<String, String> lines) {
+        try {
+            var existing = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", resource);
+            try (var reader = new BufferedReader(
+                    new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                reader.lines()
+                        .filter(l -> !l.isBlank() && !l.startsWith("#"))
+                        .forEach(l -> lines.put(l.split("\t", 2)[0], l));
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            // no table from a previous (incremental) compilation
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package cloud.quinimbus.common.processor;
+
+import cloud.quinimbus.common.annotations.Provider;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/// Writes a build-time index of all types annotated with [Provider], so that
+/// `cloud.quinimbus.common.tools.ProviderLoader` can read ids, aliases and priorities without reading the annotation of
+/// every implementation.
+///
+/// An annotated class is indexed for the services it is registered for: the `provides` directives of its module, or in
+/// the unnamed module the `META-INF/services` files in the class output (build tools copy the resources there before
+/// compiling). For every such service one resource `META-INF/quinimbus/providers/<binary name of the service>` is
+/// written. Each line describes one implementation as tab separated values: binary class name, priority, id and the
+/// aliases in declared order. Lines starting with `#` are comments. Classes without a service registration are not
+/// indexed, they are read from their annotation at runtime.
+///
+/// The index is written from the providers of the current compilation only, an index of a previous compilation in the
+/// class output is replaced, so renamed or removed providers do not leave stale entries. Providers not compiled again
+/// by an incremental build are missing from the index and read from their annotation at runtime.
+///
+/// @since 0.2
+@SupportedAnnotationTypes("cloud.quinimbus.common.annotations.Provider")
+public class ProviderIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/quinimbus/providers/";
+
+    private final SortedMap<String, SortedMap<String, String>> index = new TreeMap<>();
+
+    private final Map<String, Set<String>> registeredServices = new HashMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            this.writeIndex();
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(Provider.class)) {
+            if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+                this.processingEnv
+                        .getMessager()
+                        .printMessage(
+                                Diagnostic.Kind.ERROR,
+                                "@Provider is only allowed on concrete classes",
+                                element);
+                continue;
+            }
+            var type = (TypeElement) element;
+            var services = this.providedServices(type);
+            if (services.isEmpty()) {
+                this.processingEnv
+                        .getMessager()
+                        .printMessage(
+                                Diagnostic.Kind.NOTE,
+                                "%s is not registered as a service, it is not indexed".formatted(this.binaryName(type)),
+                                element);
+                continue;
+            }
+            var line = this.indexLine(type);
+            for (var spi : services) {
+                this.index.computeIfAbsent(spi, _ -> new TreeMap<>()).put(this.binaryName(type), line);
+            }
+        }
+        return false;
+    }
+
+    private String indexLine(TypeElement type) {
+        var provider = type.getAnnotation(Provider.class);
+        var line = new StringBuilder()
+                .append(this.binaryName(type))
+                .append('\t')
+                .append(provider.priority())
+                .append('\t')
+                .append(provider.id());
+        for (var alias : provider.alias()) {
+            line.append('\t').append(alias);
+        }
+        return line.toString();
+    }
+
+    private Set<String> providedServices(TypeElement type) {
+        var module = this.processingEnv.getElementUtils().getModuleOf(type);
+        if (module != null && !module.isUnnamed()) {
+            var services = new LinkedHashSet<String>();
+            for (var provides : ElementFilter.providesIn(module.getDirectives())) {
+                if (provides.getImplementations().contains(type)) {
+                    services.add(this.binaryName(provides.getService()));
+                }
+            }
+            return services;
+        }
+        var className = this.binaryName(type);
+        var services = new LinkedHashSet<String>();
+        for (var spi : this.supertypes(type)) {
+            if (this.registeredServices(spi).contains(className)) {
+                services.add(spi);
+            }
+        }
+        return services;
+    }
+
+    private Set<String> registeredServices(String spi) {
+        return this.registeredServices.computeIfAbsent(spi, _ -> {
+            try {
+                var registration = this.processingEnv
+                        .getFiler()
+                        .getResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + spi);
+                try (var reader = new BufferedReader(
+                        new InputStreamReader(registration.openInputStream(), StandardCharsets.UTF_8))) {
+                    return reader.lines()
+                            .map(l -> l.replaceFirst("#.*", "").trim())
+                            .filter(l -> !l.isEmpty())
+                            .collect(Collectors.toSet());
+                }
+            } catch (IOException | IllegalArgumentException ex) {
+                return Set.of();
+            }
+        });
+    }
+
+    private Set<String> supertypes(TypeElement type) {
+        var result = new LinkedHashSet<String>();
+        this.collectSupertypes(type.asType(), result);
+        result.remove(this.binaryName(type));
+        result.remove(Object.class.getName());
+        return result;
+    }
+
+    private void collectSupertypes(TypeMirror mirror, Set<String> result) {
+        if (mirror.getKind() != TypeKind.DECLARED) {
+            return;
+        }
+        var element = (TypeElement) ((DeclaredType) mirror).asElement();
+        if (!result.add(this.binaryName(element))) {
+            return;
+        }
+        for (var supertype : this.processingEnv.getTypeUtils().directSupertypes(mirror)) {
+            this.collectSupertypes(supertype, result);
+        }
+    }
+
+    private String binaryName(TypeElement type) {
+        return this.processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void writeIndex() {
+        var filer = this.processingEnv.getFiler();
+        for (var entry : this.index.entrySet()) {
+            var resource = INDEX_LOCATION + entry.getKey();
+            try {
+                FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", resource);
+                try (var writer = new PrintWriter(file.openWriter())) {
+                    writer.println("# Generated by " + ProviderIndexProcessor.class.getName());
+                    entry.getValue().values().forEach(writer::println);
+                }
+            } catch (IOException ex) {
+                this.processingEnv
+                        .getMessager()
+                        .printMessage(
+                                Diagnostic.Kind.ERROR,
+                                "Cannot write provider index %s: %s".formatted(resource, ex.getMessage()));
+            }
+        }
+        this.index.clear();
+        this.registeredServices.clear();
+    }
+}
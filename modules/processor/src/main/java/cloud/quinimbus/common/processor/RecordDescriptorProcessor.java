@@ -0,0 +1,197 @@
+package cloud.quinimbus.common.processor;
+
+import cloud.quinimbus.common.annotations.Id;
+import cloud.quinimbus.common.annotations.modelling.Naming;
+import cloud.quinimbus.common.annotations.modelling.Owner;
+import cloud.quinimbus.common.annotations.modelling.RecordNames;
+import cloud.quinimbus.common.annotations.modelling.References;
+import cloud.quinimbus.common.annotations.modelling.Searchable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.annotation.Annotation;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/// Writes a build-time descriptor for every record type using the modelling annotations, so that
+/// `cloud.quinimbus.common.tools.RecordDescriptor` does not need to reflect on the record type.
+///
+/// A record type is described if it is annotated with [Owner] or one of its components is annotated with [Id],
+/// [Naming], [Searchable] or [References]. The descriptor is written to
+/// `META-INF/quinimbus/records/<binary name of the record>`, each line holds tab separated values:
+///
+/// - `id`, the id of the record type, derived from its simple name by [RecordNames]
+/// - `plural`, the plural of the id
+/// - `owner`, the binary name of the owning entity and the owner field, if annotated with [Owner]
+/// - `component`, the name, the runtime type name and the annotations of one component in declaration order. The
+///   annotations are given as `id=<value>`, `naming`, `searchable` and `references=<binary name>`.
+///
+/// Lines starting with `#` are comments.
+///
+/// @since 0.2
+@SupportedAnnotationTypes({
+    "cloud.quinimbus.common.annotations.Id",
+    "cloud.quinimbus.common.annotations.modelling.Naming",
+    "cloud.quinimbus.common.annotations.modelling.Owner",
+    "cloud.quinimbus.common.annotations.modelling.References",
+    "cloud.quinimbus.common.annotations.modelling.Searchable"
+})
+public class RecordDescriptorProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/quinimbus/records/";
+
+    private static final Set<Class<? extends Annotation>> ANNOTATIONS =
+            Set.of(Id.class, Naming.class, Owner.class, References.class, Searchable.class);
+
+    private final Set<String> written = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        var records = new LinkedHashSet<TypeElement>();
+        for (var annotation : ANNOTATIONS) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                var enclosing = element;
+                while (enclosing != null && enclosing.getKind() != ElementKind.RECORD) {
+                    enclosing = enclosing.getEnclosingElement();
+                }
+                if (enclosing != null) {
+                    records.add((TypeElement) enclosing);
+                }
+            }
+        }
+        for (var record : records) {
+            if (this.written.add(this.binaryName(record))) {
+                this.write(record);
+            }
+        }
+        return false;
+    }
+
+    private void write(TypeElement record) {
+        var resource = INDEX_LOCATION + this.binaryName(record);
+        var id = RecordNames.idFromSimpleName(record.getSimpleName().toString());
+        try {
+            FileObject file = this.processingEnv
+                    .getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", resource, record);
+            try (var writer = new PrintWriter(file.openWriter())) {
+                writer.println("# Generated by " + RecordDescriptorProcessor.class.getName());
+                writer.println("id\t" + id);
+                writer.println("plural\t" + RecordNames.plural(id));
+                var owner = record.getAnnotation(Owner.class);
+                if (owner != null) {
+                    writer.println("owner\t" + this.classValue(owner::owningEntity) + "\t" + owner.field());
+                }
+                for (var component : record.getRecordComponents()) {
+                    writer.println(this.componentLine(record, component));
+                }
+            }
+        } catch (IOException ex) {
+            this.processingEnv
+                    .getMessager()
+                    .printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Cannot write record descriptor %s: %s".formatted(resource, ex.getMessage()),
+                            record);
+        }
+    }
+
+    private String componentLine(TypeElement record, RecordComponentElement component) {
+        var name = component.getSimpleName().toString();
+        var field = ElementFilter.fieldsIn(record.getEnclosedElements()).stream()
+                .filter(f -> !f.getModifiers().contains(Modifier.STATIC))
+                .filter(f -> f.getSimpleName().contentEquals(name))
+                .findFirst()
+                .orElse(null);
+        var line = new StringBuilder()
+                .append("component\t")
+                .append(name)
+                .append('\t')
+                .append(this.runtimeName(component.asType()));
+        var id = annotation(component, field, Id.class);
+        if (id != null) {
+            line.append("\tid=").append(id.value());
+        }
+        if (annotation(component, field, Naming.class) != null) {
+            line.append("\tnaming");
+        }
+        if (annotation(component, field, Searchable.class) != null) {
+            line.append("\tsearchable");
+        }
+        var references = annotation(component, field, References.class);
+        if (references != null) {
+            line.append("\treferences=").append(this.classValue(references::value));
+        }
+        return line.toString();
+    }
+
+    /// Annotations targeting only fields are not visible on the record component, but on its private field.
+    private static <A extends Annotation> A annotation(Element component, Element field, Class<A> annotationType) {
+        var annotation = component.getAnnotation(annotationType);
+        if (annotation == null && field != null) {
+            annotation = field.getAnnotation(annotationType);
+        }
+        return annotation;
+    }
+
+    /// @return the name of the erased type as accepted by `Class.forName`, or the name of a primitive type
+    private String runtimeName(TypeMirror type) {
+        var erasure = this.processingEnv.getTypeUtils().erasure(type);
+        return switch (erasure.getKind()) {
+            case DECLARED -> this.binaryName((TypeElement) ((DeclaredType) erasure).asElement());
+            case ARRAY -> "[" + this.arrayComponentDescriptor(((ArrayType) erasure).getComponentType());
+            default -> erasure.getKind().name().toLowerCase(Locale.ROOT);
+        };
+    }
+
+    private String arrayComponentDescriptor(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "Z";
+            case BYTE -> "B";
+            case SHORT -> "S";
+            case CHAR -> "C";
+            case INT -> "I";
+            case LONG -> "J";
+            case FLOAT -> "F";
+            case DOUBLE -> "D";
+            case ARRAY -> this.runtimeName(type);
+            default -> "L" + this.runtimeName(type) + ";";
+        };
+    }
+
+    private String classValue(Supplier<Class<?>> value) {
+        try {
+            return value.get().getName();
+        } catch (MirroredTypeException ex) {
+            return this.runtimeName(ex.getTypeMirror());
+        }
+    }
+
+    private String binaryName(TypeElement type) {
+        return this.processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+}
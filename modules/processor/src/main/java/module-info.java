@@ -0,0 +1,9 @@
+module cloud.quinimbus.common.processor {
+    requires cloud.quinimbus.common.annotations;
+    requires java.compiler;
+
+    provides javax.annotation.processing.Processor with
+            cloud.quinimbus.common.processor.ProviderIndexProcessor,
+            cloud.quinimbus.common.processor.AccessTableProcessor,
+            cloud.quinimbus.common.processor.RecordDescriptorProcessor;
+}
@@ -0,0 +1,152 @@
+package cloud.quinimbus.common.processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import javax.tools.Diagnostic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AccessTableProcessorTest {
+
+    private static final String DOCUMENT = """
+            package sample;
+
+            import cloud.quinimbus.common.annotations.security.CRUDRolesAllowed;
+            import cloud.quinimbus.common.annotations.security.Permissions;
+            import cloud.quinimbus.common.annotations.security.Permissions.Type;
+
+            @CRUDRolesAllowed(
+                    create = @Permissions(value = Type.ROLES, roles = {"editor", "admin"}),
+                    read = @Permissions(Type.ANONYMOUS),
+                    update = @Permissions(Type.AUTHENTICATED),
+                    delete = @Permissions(value = Type.ROLES, roles = "admin"))
+            public record Document(String id) {
+                public record Version(String id) {}
+            }
+            """;
+
+    private static final String ACTIONS = """
+            package sample;
+
+            import cloud.quinimbus.common.annotations.business.Action;
+            import cloud.quinimbus.common.annotations.business.RecordEntityInstanceContext;
+            import cloud.quinimbus.common.annotations.business.RecordTypeContext;
+            import cloud.quinimbus.common.annotations.security.ActionRolesAllowed;
+            import cloud.quinimbus.common.annotations.security.Permissions;
+            import cloud.quinimbus.common.annotations.security.Permissions.Type;
+
+            public class Actions {
+
+                @Action("archive")
+                @RecordEntityInstanceContext(Document.class)
+                @ActionRolesAllowed(call = @Permissions(value = Type.ROLES, roles = "admin"))
+                public void archive() {}
+
+                @Action("export")
+                @RecordTypeContext(Document.Version.class)
+                @ActionRolesAllowed(call = @Permissions(Type.AUTHENTICATED))
+                public void export() {}
+            }
+            """;
+
+    @Test
+    public void testWritesAccessTables(@TempDir Path dir) {
+        var compilation = Compilation.compile(
+                dir,
+                new AccessTableProcessor(),
+                Map.of(),
+                Map.of("sample/Document.java", DOCUMENT, "sample/Actions.java", ACTIONS));
+
+        assertTrue(compilation.success(), compilation.messages(Diagnostic.Kind.ERROR));
+        assertEquals(
+                List.of(
+                        "action:archive\tROLES\tadmin",
+                        "create\tROLES\teditor\tadmin",
+                        "delete\tROLES\tadmin",
+                        "read\tANONYMOUS",
+                        "update\tAUTHENTICATED"),
+                compilation.resource("META-INF/quinimbus/access/sample.Document"));
+        assertEquals(
+                List.of("action:export\tAUTHENTICATED"),
+                compilation.resource("META-INF/quinimbus/access/sample.Document$Version"));
+    }
+
+    @Test
+    public void testKeepsEntriesOfPreviousCompilations(@TempDir Path dir) {
+        var compilation = Compilation.compile(
+                dir,
+                new AccessTableProcessor(),
+                Map.of(
+                        "META-INF/quinimbus/access/sample.Document",
+                        "# previous compilation\naction:publish\tROLES\teditor\nread\tROLES\treader\n"),
+                Map.of("sample/Document.java", DOCUMENT));
+
+        assertTrue(compilation.success(), compilation.messages(Diagnostic.Kind.ERROR));
+        assertEquals(
+                List.of(
+                        "action:publish\tROLES\teditor",
+                        "create\tROLES\teditor\tadmin",
+                        "delete\tROLES\tadmin",
+                        "read\tANONYMOUS",
+                        "update\tAUTHENTICATED"),
+                compilation.resource("META-INF/quinimbus/access/sample.Document"));
+    }
+
+    @Test
+    public void testRejectsCrudPermissionsOnClasses(@TempDir Path dir) {
+        var compilation = Compilation.compile(
+                dir,
+                new AccessTableProcessor(),
+                Map.of(),
+                Map.of(
+                        "sample/Service.java",
+                        """
+                        package sample;
+
+                        import cloud.quinimbus.common.annotations.security.CRUDRolesAllowed;
+                        import cloud.quinimbus.common.annotations.security.Permissions;
+                        import cloud.quinimbus.common.annotations.security.Permissions.Type;
+
+                        @CRUDRolesAllowed(
+                                create = @Permissions(Type.ANONYMOUS),
+                                read = @Permissions(Type.ANONYMOUS),
+                                update = @Permissions(Type.ANONYMOUS),
+                                delete = @Permissions(Type.ANONYMOUS))
+                        public class Service {}
+                        """));
+
+        assertFalse(compilation.success());
+        assertTrue(compilation.messages(Diagnostic.Kind.ERROR).contains("only allowed on records"));
+    }
+
+    @Test
+    public void testRejectsActionsWithoutRecordContext(@TempDir Path dir) {
+        var compilation = Compilation.compile(
+                dir,
+                new AccessTableProcessor(),
+                Map.of(),
+                Map.of(
+                        "sample/Actions.java",
+                        """
+                        package sample;
+
+                        import cloud.quinimbus.common.annotations.business.Action;
+                        import cloud.quinimbus.common.annotations.security.ActionRolesAllowed;
+                        import cloud.quinimbus.common.annotations.security.Permissions;
+                        import cloud.quinimbus.common.annotations.security.Permissions.Type;
+
+                        public class Actions {
+
+                            @Action("archive")
+                            @ActionRolesAllowed(call = @Permissions(Type.AUTHENTICATED))
+                            public void archive() {}
+                        }
+                        """));
+
+        assertFalse(compilation.success());
+        assertTrue(compilation.messages(Diagnostic.Kind.ERROR).contains("requires @Action and either"));
+    }
+}
@@ -0,0 +1,98 @@
+package cloud.quinimbus.common.processor;
+
+import cloud.quinimbus.common.annotations.Provider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+/// Compiles sources with a single annotation processor, so tests can check the resources it writes.
+///
+/// @param success whether the compilation succeeded
+/// @param diagnostics the diagnostics reported by the compiler and the processor
+/// @param classOutput the directory the classes and resources were written to
+record Compilation(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, Path classOutput) {
+
+    /// Compiles the sources, the annotations module is on the class path or, if the sources contain a
+    /// `module-info.java`, on the module path.
+    ///
+    /// @param dir the directory to write the sources and the output to
+    /// @param processor the processor to run
+    /// @param resources resources to place in the class output before compiling, by their path
+    /// @param sources the sources by their path relative to the source root
+    /// @return the compilation
+    static Compilation compile(
+            Path dir, Processor processor, Map<String, String> resources, Map<String, String> sources) {
+        try {
+            var sourceRoot = Files.createDirectories(dir.resolve("src"));
+            var classOutput = Files.createDirectories(dir.resolve("classes"));
+            for (var resource : resources.entrySet()) {
+                write(classOutput.resolve(resource.getKey()), resource.getValue());
+            }
+            var files = new ArrayList<Path>();
+            for (var source : sources.entrySet()) {
+                files.add(write(sourceRoot.resolve(source.getKey()), source.getValue()));
+            }
+            var annotations = Path.of(
+                    Provider.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            var options = List.of(
+                    sources.containsKey("module-info.java") ? "--module-path" : "--class-path",
+                    annotations.toString(),
+                    "-d",
+                    classOutput.toString());
+            var compiler = ToolProvider.getSystemJavaCompiler();
+            var diagnostics = new DiagnosticCollector<JavaFileObject>();
+            try (var fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+                var task = compiler.getTask(
+                        null, fileManager, diagnostics, options, null, fileManager.getJavaFileObjectsFromPaths(files));
+                task.setProcessors(List.of(processor));
+                var success = task.call();
+                return new Compilation(success, diagnostics.getDiagnostics(), classOutput);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (URISyntaxException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /// @param name the path of the resource
+    /// @return the lines of the resource without comments, or `null` if it was not written
+    List<String> resource(String name) {
+        var file = this.classOutput.resolve(name);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return Files.readAllLines(file).stream()
+                    .filter(l -> !l.startsWith("#"))
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /// @param kind the diagnostic kind
+    /// @return the messages of the diagnostics of the kind
+    String messages(Diagnostic.Kind kind) {
+        return this.diagnostics.stream()
+                .filter(d -> d.getKind() == kind)
+                .map(d -> d.getMessage(null))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
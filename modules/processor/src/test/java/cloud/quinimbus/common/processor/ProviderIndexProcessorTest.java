@@ -0,0 +1,124 @@
+package cloud.quinimbus.common.processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import javax.tools.Diagnostic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProviderIndexProcessorTest {
+
+    private static final String SPI = """
+            package sample;
+
+            public interface Spi {}
+            """;
+
+    private static final String IMPL = """
+            package sample;
+
+            import cloud.quinimbus.common.annotations.Provider;
+
+            @Provider(id = "impl", alias = {"i", "im"}, priority = 5)
+            public class Impl implements Spi, java.io.Serializable, Comparable<Impl> {
+                public int compareTo(Impl other) {
+                    return 0;
+                }
+            }
+            """;
+
+    @Test
+    public void testIndexesRegisteredServicesOnly(@TempDir Path dir) {
+        var compilation = Compilation.compile(
+                dir,
+                new ProviderIndexProcessor(),
+                Map.of("META-INF/services/sample.Spi", "# registration\nsample.Impl\n"),
+                Map.of("sample/Spi.java", SPI, "sample/Impl.java", IMPL));
+
+        assertTrue(compilation.success(), compilation.messages(Diagnostic.Kind.ERROR));
+        assertEquals(
+                List.of("sample.Impl\t5\timpl\ti\tim"),
+                compilation.resource("META-INF/quinimbus/providers/sample.Spi"));
+        assertNull(compilation.resource("META-INF/quinimbus/providers/java.io.Serializable"));
+        assertNull(compilation.resource("META-INF/quinimbus/providers/java.lang.Comparable"));
+    }
+
+    @Test
+    public void testReplacesIndexOfPreviousCompilations(@TempDir Path dir) {
+        var compilation = Compilation.compile(
+                dir,
+                new ProviderIndexProcessor(),
+                Map.of(
+                        "META-INF/services/sample.Spi",
+                        "sample.Impl\n",
+                        "META-INF/quinimbus/providers/sample.Spi",
+                        "# previous compilation\nsample.Removed\t0\tremoved\n"),
+                Map.of("sample/Spi.java", SPI, "sample/Impl.java", IMPL));
+
+        assertTrue(compilation.success(), compilation.messages(Diagnostic.Kind.ERROR));
+        assertEquals(
+                List.of("sample.Impl\t5\timpl\ti\tim"),
+                compilation.resource("META-INF/quinimbus/providers/sample.Spi"));
+    }
+
+    @Test
+    public void testSkipsUnregisteredProviders(@TempDir Path dir) {
+        var compilation = Compilation.compile(
+                dir, new ProviderIndexProcessor(), Map.of(), Map.of("sample/Spi.java", SPI, "sample/Impl.java", IMPL));
+
+        assertTrue(compilation.success(), compilation.messages(Diagnostic.Kind.ERROR));
+        assertNull(compilation.resource("META-INF/quinimbus/providers/sample.Spi"));
+        assertTrue(compilation.messages(Diagnostic.Kind.NOTE).contains("sample.Impl is not registered as a service"));
+    }
+
+    @Test
+    public void testIndexesProvidesDirectivesOfModules(@TempDir Path dir) {
+        var compilation = Compilation.compile(
+                dir,
+                new ProviderIndexProcessor(),
+                Map.of(),
+                Map.of(
+                        "module-info.java",
+                        """
+                        module sample {
+                            requires cloud.quinimbus.common.annotations;
+
+                            provides sample.Spi with sample.Impl;
+                        }
+                        """,
+                        "sample/Spi.java",
+                        SPI,
+                        "sample/Impl.java",
+                        IMPL));
+
+        assertTrue(compilation.success(), compilation.messages(Diagnostic.Kind.ERROR));
+        assertEquals(
+                List.of("sample.Impl\t5\timpl\ti\tim"),
+                compilation.resource("META-INF/quinimbus/providers/sample.Spi"));
+        assertNull(compilation.resource("META-INF/quinimbus/providers/java.io.Serializable"));
+    }
+
+    @Test
+    public void testRejectsAbstractProviders(@TempDir Path dir) {
+        var compilation = Compilation.compile(
+                dir,
+                new ProviderIndexProcessor(),
+                Map.of(),
+                Map.of(
+                        "sample/Spi.java",
+                        SPI,
+                        "sample/AbstractImpl.java",
+                        """
+                        package sample;
+
+                        @cloud.quinimbus.common.annotations.Provider(id = "abstract")
+                        public abstract class AbstractImpl implements Spi {}
+                        """));
+
+        assertFalse(compilation.success());
+        assertTrue(compilation.messages(Diagnostic.Kind.ERROR).contains("only allowed on concrete classes"));
+    }
+}
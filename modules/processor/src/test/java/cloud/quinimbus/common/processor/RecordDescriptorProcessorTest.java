@@ -0,0 +1,106 @@
+package cloud.quinimbus.common.processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import javax.tools.Diagnostic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RecordDescriptorProcessorTest {
+
+    private static final String CATEGORY = """
+            package sample;
+
+            import cloud.quinimbus.common.annotations.Id;
+            import cloud.quinimbus.common.annotations.modelling.Naming;
+
+            public record Category(@Id("slug") String slug, @Naming String title) {
+
+                public record Entry(@Id("key") String key, int position) {}
+            }
+            """;
+
+    private static final String ARTICLE = """
+            package sample;
+
+            import cloud.quinimbus.common.annotations.Id;
+            import cloud.quinimbus.common.annotations.modelling.Naming;
+            import cloud.quinimbus.common.annotations.modelling.Owner;
+            import cloud.quinimbus.common.annotations.modelling.References;
+            import cloud.quinimbus.common.annotations.modelling.Searchable;
+            import java.util.List;
+
+            @Owner(owningEntity = Category.class, field = "category")
+            public record Article(
+                    @Id("id") String id,
+                    @Naming @Searchable String title,
+                    @References(Category.Entry.class) String category,
+                    List<String> tags,
+                    byte[] content,
+                    String[][] matrix,
+                    long views) {}
+            """;
+
+    private static final String PLAIN = """
+            package sample;
+
+            public record Plain(String value) {}
+            """;
+
+    @Test
+    public void testWritesRecordDescriptors(@TempDir Path dir) {
+        var compilation = Compilation.compile(
+                dir,
+                new RecordDescriptorProcessor(),
+                Map.of(),
+                Map.of(
+                        "sample/Category.java", CATEGORY,
+                        "sample/Article.java", ARTICLE,
+                        "sample/Plain.java", PLAIN));
+
+        assertTrue(compilation.success(), compilation.messages(Diagnostic.Kind.ERROR));
+        assertEquals(
+                List.of(
+                        "id\tarticle",
+                        "plural\tarticles",
+                        "owner\tsample.Category\tcategory",
+                        "component\tid\tjava.lang.String\tid=id",
+                        "component\ttitle\tjava.lang.String\tnaming\tsearchable",
+                        "component\tcategory\tjava.lang.String\treferences=sample.Category$Entry",
+                        "component\ttags\tjava.util.List",
+                        "component\tcontent\t[B",
+                        "component\tmatrix\t[[Ljava.lang.String;",
+                        "component\tviews\tlong"),
+                compilation.resource("META-INF/quinimbus/records/sample.Article"));
+        assertEquals(
+                List.of(
+                        "id\tcategory",
+                        "plural\tcategories",
+                        "component\tslug\tjava.lang.String\tid=slug",
+                        "component\ttitle\tjava.lang.String\tnaming"),
+                compilation.resource("META-INF/quinimbus/records/sample.Category"));
+        assertEquals(
+                List.of(
+                        "id\tentry",
+                        "plural\tentries",
+                        "component\tkey\tjava.lang.String\tid=key",
+                        "component\tposition\tint"),
+                compilation.resource("META-INF/quinimbus/records/sample.Category$Entry"));
+        assertNull(compilation.resource("META-INF/quinimbus/records/sample.Plain"));
+    }
+
+    @Test
+    public void testDescriptorsStartWithGeneratedComment(@TempDir Path dir) throws Exception {
+        var compilation = Compilation.compile(
+                dir, new RecordDescriptorProcessor(), Map.of(), Map.of("sample/Category.java", CATEGORY));
+
+        assertTrue(compilation.success(), compilation.messages(Diagnostic.Kind.ERROR));
+        var lines = Files.readAllLines(
+                compilation.classOutput().resolve("META-INF/quinimbus/records/sample.Category"));
+        assertEquals("# Generated by " + RecordDescriptorProcessor.class.getName(), lines.getFirst());
+    }
+}
@@ -0,0 +1,10 @@
+open module cloud.quinimbus.common.processor {
+    requires cloud.quinimbus.common.annotations;
+    requires java.compiler;
+    requires org.junit.jupiter.api;
+
+    provides javax.annotation.processing.Processor with
+            cloud.quinimbus.common.processor.ProviderIndexProcessor,
+            cloud.quinimbus.common.processor.AccessTableProcessor,
+            cloud.quinimbus.common.processor.RecordDescriptorProcessor;
+}
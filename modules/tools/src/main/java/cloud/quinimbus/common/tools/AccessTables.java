@@ -0,0 +1,131 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.security.Permissions;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/// Checks the permissions declared with `@CRUDRolesAllowed` and `@ActionRolesAllowed` on record types.
+///
+/// The annotations are not retained at runtime, instead the access tables written by
+/// `cloud.quinimbus.common.processor.AccessTableProcessor` to `META-INF/quinimbus/access/<binary name of the record>`
+/// are read once per record type. The allowed roles are kept as [RoleSet], so a check is a lookup and a few bitwise
+/// operations without allocation. Operations without declared permissions are denied.
+///
+/// @since 0.2
+public final class AccessTables {
+
+    static final String INDEX_LOCATION = "META-INF/quinimbus/access/";
+
+    private static final String ACTION_PREFIX = "action:";
+
+    /// The CRUD operations on a record type.
+    public enum Operation {
+        CREATE,
+        READ,
+        UPDATE,
+        DELETE
+    }
+
+    private record Rule(Permissions.Type type, RoleSet roles) {
+
+        boolean allows(RoleSet principal) {
+            return switch (this.type) {
+                case ANONYMOUS -> true;
+                case AUTHENTICATED -> principal.authenticated();
+                case ROLES -> principal.intersects(this.roles);
+            };
+        }
+    }
+
+    private record Table(Rule[] operations, Map<String, Rule> actions) {}
+
+    private static final ClassValue<Table> TABLES = new ClassValue<>() {
+        @Override
+        protected Table computeValue(Class<?> type) {
+            return read(type);
+        }
+    };
+
+    private AccessTables() {}
+
+    /// Returns whether the principal may execute the CRUD operation on the record type.
+    ///
+    /// @param type the record type
+    /// @param operation the operation
+    /// @param principal the roles of the principal
+    /// @return whether the operation is allowed, `false` if no permissions are declared for it
+    public static boolean isAllowed(Class<? extends Record> type, Operation operation, RoleSet principal) {
+        var rule = TABLES.get(type).operations()[operation.ordinal()];
+        return rule != null && rule.allows(principal);
+    }
+
+    /// Returns whether the principal may call the action on the record type.
+    ///
+    /// @param type the record type
+    /// @param action the name of the action
+    /// @param principal the roles of the principal
+    /// @return whether the action is allowed, `false` if no permissions are declared for it
+    public static boolean isActionAllowed(Class<? extends Record> type, String action, RoleSet principal) {
+        var rule = TABLES.get(type).actions().get(action);
+        return rule != null && rule.allows(principal);
+    }
+
+    private static Table read(Class<?> type) {
+        var operations = new Rule[Operation.values().length];
+        var actions = new HashMap<String, Rule>();
+        var classLoader = type.getClassLoader() != null ? type.getClassLoader() : ClassLoader.getSystemClassLoader();
+        try {
+            var resources = classLoader.getResources(INDEX_LOCATION + type.getName());
+            while (resources.hasMoreElements()) {
+                readResource(resources.nextElement(), operations, actions);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read the access table for %s".formatted(type.getName()), ex);
+        }
+        return new Table(operations, Map.copyOf(actions));
+    }
+
+    private static void readResource(URL resource, Rule[] operations, Map<String, Rule> actions) throws IOException {
+        try (var reader =
+                new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                var columns = line.split("\t");
+                if (columns.length < 2) {
+                    throw new IllegalStateException("Malformed access table entry in %s: %s".formatted(resource, line));
+                }
+                Rule rule;
+                try {
+                    rule = new Rule(
+                            Permissions.Type.valueOf(columns[1]),
+                            RoleSet.declared(Arrays.asList(columns).subList(2, columns.length)));
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalStateException(
+                            "Malformed access table entry in %s: %s".formatted(resource, line), ex);
+                }
+                if (columns[0].startsWith(ACTION_PREFIX)) {
+                    actions.putIfAbsent(columns[0].substring(ACTION_PREFIX.length()), rule);
+                } else {
+                    var operation = Arrays.stream(Operation.values())
+                            .filter(o -> o.name().equalsIgnoreCase(columns[0]))
+                            .findFirst()
+                            .orElseThrow(() -> new IllegalStateException(
+                                    "Unknown operation in access table %s: %s".formatted(resource, columns[0])));
+                    if (operations[operation.ordinal()] == null) {
+                        operations[operation.ordinal()] = rule;
+                    }
+                }
+            }
+        }
+    }
+}
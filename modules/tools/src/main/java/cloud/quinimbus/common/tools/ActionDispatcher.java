@@ -0,0 +1,217 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.business.Action;
+import cloud.quinimbus.common.annotations.business.RecordEntityInstanceContext;
+import cloud.quinimbus.common.annotations.business.RecordTypeContext;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/// Dispatches calls of the methods annotated with [Action] of a business object by record type and action name.
+///
+/// The public methods of a business class are scanned once per class. An action method is annotated with either
+/// [RecordTypeContext], then it has no parameters and is called for the record type, or with
+/// [RecordEntityInstanceContext], then it has one parameter accepting the entity. Each action is bound to a
+/// [MethodHandle] of the type `()Object` respectively `(Object)Object`, so dispatching is a map lookup followed by an
+/// exact invocation without reflection or argument arrays. Actions returning `void` return `null`.
+///
+/// @since 0.2
+public final class ActionDispatcher {
+
+    /// An action method found by scanning a business class, not yet bound to an instance.
+    ///
+    /// @param recordType the record type of the context annotation
+    /// @param action the name of the action
+    /// @param instanceContext whether the action is called for an entity instance
+    /// @param handle the unbound handle of the method
+    /// @param isStatic whether the method is static
+    private record ActionMethod(
+            Class<?> recordType, String action, boolean instanceContext, MethodHandle handle, boolean isStatic) {}
+
+    private record Invoker(boolean instanceContext, MethodHandle handle) {}
+
+    private static final ClassValue<List<ActionMethod>> ACTION_METHODS = new ClassValue<>() {
+        @Override
+        protected List<ActionMethod> computeValue(Class<?> type) {
+            return scan(type);
+        }
+    };
+
+    private final Map<Class<?>, Map<String, Invoker>> invokers;
+
+    private ActionDispatcher(Map<Class<?>, Map<String, Invoker>> invokers) {
+        this.invokers = invokers;
+    }
+
+    /// Creates a dispatcher for the actions of the business object.
+    ///
+    /// @param target the business object, its instance methods are bound to it
+    /// @return the dispatcher
+    /// @throws IllegalArgumentException if an action method is malformed or an action is defined twice for a record
+    ///   type
+    public static ActionDispatcher of(Object target) {
+        var invokers = new HashMap<Class<?>, Map<String, Invoker>>();
+        for (var method : ACTION_METHODS.get(target.getClass())) {
+            var handle = method.isStatic() ? method.handle() : method.handle().bindTo(target);
+            var type = method.instanceContext()
+                    ? MethodType.methodType(Object.class, Object.class)
+                    : MethodType.methodType(Object.class);
+            invokers.computeIfAbsent(method.recordType(), _ -> new HashMap<>())
+                    .put(method.action(), new Invoker(method.instanceContext(), handle.asType(type)));
+        }
+        invokers.replaceAll((_, actions) -> Map.copyOf(actions));
+        return new ActionDispatcher(Map.copyOf(invokers));
+    }
+
+    /// Returns the actions available for the record type.
+    ///
+    /// @param recordType the record type
+    /// @return the action names
+    public Set<String> actions(Class<? extends Record> recordType) {
+        return this.invokers.getOrDefault(recordType, Map.of()).keySet();
+    }
+
+    /// Calls an action with [RecordTypeContext] for the record type.
+    ///
+    /// @param recordType the record type
+    /// @param action the name of the action
+    /// @return the result of the action
+    /// @throws IllegalArgumentException if there is no such action with a type context
+    /// @throws IllegalStateException if the action throws a checked exception
+    public Object invoke(Class<? extends Record> recordType, String action) {
+        var invoker = this.invoker(recordType, action, false);
+        try {
+            return invoker.handle().invokeExact();
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw invocationFailure(recordType, action, ex);
+        }
+    }
+
+    /// Calls an action with [RecordEntityInstanceContext] for the entity.
+    ///
+    /// @param entity the entity
+    /// @param action the name of the action
+    /// @return the result of the action
+    /// @throws IllegalArgumentException if there is no such action with an instance context
+    /// @throws IllegalStateException if the action throws a checked exception
+    public Object invoke(Record entity, String action) {
+        var invoker = this.invoker(entity.getClass(), action, true);
+        try {
+            return invoker.handle().invokeExact((Object) entity);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw invocationFailure(entity.getClass(), action, ex);
+        }
+    }
+
+    /// Calls an action with [RecordEntityInstanceContext] for all entities, looking up the action only once.
+    ///
+    /// @param <R> the record type
+    /// @param recordType the record type
+    /// @param action the name of the action
+    /// @param entities the entities
+    /// @return the results of the action in the order of the entities
+    /// @throws IllegalArgumentException if there is no such action with an instance context
+    /// @throws IllegalStateException if the action throws a checked exception
+    public <R extends Record> List<Object> invokeAll(
+            Class<R> recordType, String action, List<? extends R> entities) {
+        var handle = this.invoker(recordType, action, true).handle();
+        var results = new Object[entities.size()];
+        int i = 0;
+        try {
+            for (var entity : entities) {
+                results[i++] = handle.invokeExact((Object) recordType.cast(entity));
+            }
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw invocationFailure(recordType, action, ex);
+        }
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    private Invoker invoker(Class<?> recordType, String action, boolean instanceContext) {
+        var invoker = this.invokers.getOrDefault(recordType, Map.of()).get(action);
+        if (invoker == null || invoker.instanceContext() != instanceContext) {
+            throw new IllegalArgumentException("There is no action %s with %s for record type %s, known actions are %s"
+                    .formatted(
+                            action,
+                            instanceContext ? "instance context" : "type context",
+                            recordType.getName(),
+                            this.invokers.getOrDefault(recordType, Map.of()).keySet()));
+        }
+        return invoker;
+    }
+
+    private static IllegalStateException invocationFailure(Class<?> recordType, String action, Throwable cause) {
+        return new IllegalStateException(
+                "Action %s on record type %s failed".formatted(action, recordType.getName()), cause);
+    }
+
+    private static List<ActionMethod> scan(Class<?> type) {
+        var methods = new ArrayList<ActionMethod>();
+        var seen = new HashMap<String, Method>();
+        for (var method : type.getMethods()) {
+            var action = method.getAnnotation(Action.class);
+            if (action == null) {
+                continue;
+            }
+            var typeContext = method.getAnnotation(RecordTypeContext.class);
+            var instanceContext = method.getAnnotation(RecordEntityInstanceContext.class);
+            if ((typeContext == null) == (instanceContext == null)) {
+                throw new IllegalArgumentException(
+                        "Action method %s needs either @RecordTypeContext or @RecordEntityInstanceContext"
+                                .formatted(method));
+            }
+            var recordType = typeContext != null ? typeContext.value() : instanceContext.value();
+            if (instanceContext != null
+                    ? method.getParameterCount() != 1 || !method.getParameterTypes()[0].isAssignableFrom(recordType)
+                    : method.getParameterCount() != 0) {
+                throw new IllegalArgumentException("Action method %s must have %s"
+                        .formatted(
+                                method,
+                                instanceContext != null
+                                        ? "exactly one parameter accepting %s".formatted(recordType.getName())
+                                        : "no parameters"));
+            }
+            var previous = seen.putIfAbsent(recordType.getName() + "#" + action.value(), method);
+            if (previous != null) {
+                throw new IllegalArgumentException("Action %s for record type %s is defined by %s and %s"
+                        .formatted(action.value(), recordType.getName(), previous, method));
+            }
+            methods.add(new ActionMethod(
+                    recordType,
+                    action.value(),
+                    instanceContext != null,
+                    unreflect(method),
+                    Modifier.isStatic(method.getModifiers())));
+        }
+        return List.copyOf(methods);
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        ActionDispatcher.class.getModule().addReads(method.getDeclaringClass().getModule());
+        try {
+            try {
+                return MethodHandles.lookup().unreflect(method);
+            } catch (IllegalAccessException ex) {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method);
+            }
+        } catch (IllegalAccessException | RuntimeException ex) {
+            throw new IllegalArgumentException("Cannot access action method %s".formatted(method), ex);
+        }
+    }
+}
@@ -1,22 +1,128 @@
 package cloud.quinimbus.common.tools;
 
+import java.time.Instant;
+
 public class IDs {
 
     public static String toPlural(String id) {
-        if (id.endsWith("y")) {
-            return id.substring(0, id.length() - 1).concat("ies");
-        } else {
-            return id.concat("s");
-        }
+        return NameCache.plural(id);
     }
 
     public static String toSingular(String id) {
-        if (id.endsWith("ies")) {
-            return id.substring(0, id.length() - 3).concat("y");
-        }
-        if (id.endsWith("s")) {
-            return id.substring(0, id.length() - 1);
+        return NameCache.singular(id);
+    }
+
+    /// Generates a time-ordered id. All ids generated by one JVM are strictly increasing, up to 2048 ids per
+    /// millisecond. Generation does not lock.
+    ///
+    /// Each id contains the node id of the JVM, see [#nodeId()], so ids generated by JVMs with distinct node ids never
+    /// collide. The node id must be set with the system property `cloud.quinimbus.common.tools.nodeId` or
+    /// [#configureNodeId(int)] before generating ids.
+    ///
+    /// @return the new id, always positive
+    /// @throws IllegalStateException if no node id is configured
+    /// @since 0.2
+    public static long nextId() {
+        return TimeOrderedIds.next();
+    }
+
+    /// Fills the array with newly generated, strictly increasing time-ordered ids, reserving a range of sequence
+    /// numbers per millisecond at once.
+    ///
+    /// @param target the array to fill
+    /// @throws IllegalStateException if no node id is configured
+    /// @since 0.2
+    public static void nextIds(long[] target) {
+        TimeOrderedIds.fill(target, 0, target.length);
+    }
+
+    /// Fills the array with newly generated time-ordered ids in their base32 encoding, see [#toBase32(long)].
+    ///
+    /// @param target the array to fill
+    /// @throws IllegalStateException if no node id is configured
+    /// @since 0.2
+    public static void nextIds(String[] target) {
+        var ids = new long[target.length];
+        TimeOrderedIds.fill(ids, 0, ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            target[i] = TimeOrderedIds.toBase32(ids[i]);
         }
-        return id;
+    }
+
+    /// Returns the node id contained in the ids generated by this JVM, set by [#configureNodeId(int)] or the system
+    /// property `cloud.quinimbus.common.tools.nodeId`.
+    ///
+    /// @return the node id, from 0 to 1023
+    /// @throws IllegalStateException if no node id is configured
+    /// @since 0.2
+    public static int nodeId() {
+        return TimeOrderedIds.nodeId();
+    }
+
+    /// Sets the node id of this JVM if the system property `cloud.quinimbus.common.tools.nodeId` is not set. The node
+    /// id must be unique among all JVMs generating ids for the same data and cannot be changed once set.
+    ///
+    /// @param nodeId the node id, from 0 to 1023
+    /// @throws IllegalArgumentException if the node id is out of range
+    /// @throws IllegalStateException if a different node id is already set
+    /// @since 0.2
+    public static void configureNodeId(int nodeId) {
+        TimeOrderedIds.configureNodeId(nodeId);
+    }
+
+    /// Returns the node id of the JVM that generated an id by [#nextId()].
+    ///
+    /// @param id the id
+    /// @return the node id, from 0 to 1023
+    /// @since 0.2
+    public static int nodeIdOf(long id) {
+        return TimeOrderedIds.node(id);
+    }
+
+    /// Returns the creation time of an id generated by [#nextId()].
+    ///
+    /// @param id the id
+    /// @return the creation time, millisecond precision
+    /// @since 0.2
+    public static Instant timestampOf(long id) {
+        return TimeOrderedIds.timestamp(id);
+    }
+
+    /// Encodes an id as 8 big-endian bytes, which sort like the ids when compared unsigned.
+    ///
+    /// @param id the id
+    /// @return the binary id
+    /// @since 0.2
+    public static byte[] toBytes(long id) {
+        return TimeOrderedIds.toBytes(id);
+    }
+
+    /// Decodes an id encoded by [#toBytes(long)].
+    ///
+    /// @param bytes the binary id
+    /// @return the id
+    /// @throws IllegalArgumentException if the array does not have 8 bytes
+    /// @since 0.2
+    public static long fromBytes(byte[] bytes) {
+        return TimeOrderedIds.fromBytes(bytes);
+    }
+
+    /// Encodes an id as 13 characters of Crockford base32. Encoded positive ids sort like the ids.
+    ///
+    /// @param id the id
+    /// @return the encoded id
+    /// @since 0.2
+    public static String toBase32(long id) {
+        return TimeOrderedIds.toBase32(id);
+    }
+
+    /// Decodes an id encoded by [#toBase32(long)], ignoring the case.
+    ///
+    /// @param encoded the encoded id
+    /// @return the id
+    /// @throws IllegalArgumentException if the string is no valid encoded id
+    /// @since 0.2
+    public static long fromBase32(CharSequence encoded) {
+        return TimeOrderedIds.fromBase32(encoded);
     }
 }
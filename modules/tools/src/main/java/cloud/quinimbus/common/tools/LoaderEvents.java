@@ -0,0 +1,89 @@
+package cloud.quinimbus.common.tools;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/// JDK Flight Recorder events emitted by [ProviderLoader] and [SingletonContextLoader]. Events are only committed when
+/// they are enabled in the recording, otherwise creating them costs nothing after JIT compilation.
+final class LoaderEvents {
+
+    private static final String CATEGORY = "QuiNimbus";
+
+    private LoaderEvents() {}
+
+    @Name("cloud.quinimbus.ProviderDiscovery")
+    @Label("Provider Discovery")
+    @Description("Discovery of all implementations of an SPI")
+    @Category({CATEGORY, "Providers"})
+    @StackTrace(false)
+    static final class ProviderDiscovery extends Event {
+
+        @Label("SPI")
+        String spi;
+
+        @Label("Providers")
+        int providers;
+
+        @Label("Indexed")
+        @Description("Whether the providers were read from the build-time index")
+        boolean indexed;
+    }
+
+    @Name("cloud.quinimbus.ProviderAnnotationRead")
+    @Label("Provider Annotation Read")
+    @Description("Reflective read of the @Provider annotation of an implementation")
+    @Category({CATEGORY, "Providers"})
+    @StackTrace(false)
+    static final class ProviderAnnotationRead extends Event {
+
+        @Label("SPI")
+        String spi;
+
+        @Label("Provider Class")
+        String provider;
+    }
+
+    @Name("cloud.quinimbus.ProviderValidation")
+    @Label("Provider Validation")
+    @Description("Sorting, alias and duplicate key validation of the providers of an SPI")
+    @Category({CATEGORY, "Providers"})
+    @StackTrace(false)
+    static final class ProviderValidation extends Event {
+
+        @Label("SPI")
+        String spi;
+
+        @Label("Keys")
+        int keys;
+
+        @Label("Errors")
+        int errors;
+    }
+
+    @Name("cloud.quinimbus.ProviderInstantiation")
+    @Label("Provider Instantiation")
+    @Description("First instantiation of a provider")
+    @Category({CATEGORY, "Providers"})
+    static final class ProviderInstantiation extends Event {
+
+        @Label("SPI")
+        String spi;
+
+        @Label("Provider Class")
+        String provider;
+    }
+
+    @Name("cloud.quinimbus.ContextCreation")
+    @Label("Context Creation")
+    @Description("Creation of a singleton context")
+    @Category({CATEGORY, "Contexts"})
+    static final class ContextCreation extends Event {
+
+        @Label("Context Class")
+        String context;
+    }
+}
@@ -0,0 +1,130 @@
+package cloud.quinimbus.common.tools;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/// In-process counters and timers for the work done by [ProviderLoader] and [SingletonContextLoader], e.g. to expose
+/// them on a metrics endpoint. The same operations are also available as JDK Flight Recorder events in the category
+/// `QuiNimbus`.
+///
+/// The timers are disabled by default, the loaders then neither read the clock nor update any counter for them. Enable
+/// them with [#setEnabled(boolean)] or by starting the JVM with `-Dcloud.quinimbus.common.tools.loaderMetrics=true`.
+/// The Flight Recorder events do not depend on this setting.
+///
+/// @since 0.2
+public final class LoaderMetrics {
+
+    /// The measured operations.
+    public enum Operation {
+        /// Discovery of the providers of an SPI, either from the build-time index or the [java.util.ServiceLoader]
+        PROVIDER_DISCOVERY,
+        /// Reflective read of the `@Provider` annotation of a single implementation
+        PROVIDER_ANNOTATION_READ,
+        /// Sorting and validation of the keys of all providers of an SPI
+        PROVIDER_VALIDATION,
+        /// First instantiation of a single provider
+        PROVIDER_INSTANTIATION,
+        /// Creation of a singleton context
+        CONTEXT_CREATION
+    }
+
+    /// A snapshot of the timer of one operation.
+    ///
+    /// @param count the number of times the operation was executed
+    /// @param total the accumulated duration of all executions
+    /// @param max the longest single execution
+    public record Timer(long count, Duration total, Duration max) {
+
+        /// @return the average duration of a single execution
+        public Duration mean() {
+            return this.count == 0 ? Duration.ZERO : this.total.dividedBy(this.count);
+        }
+    }
+
+    /// The start time returned by [#start()] while the timers are disabled.
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    private static final Map<Operation, Accumulator> ACCUMULATORS = new EnumMap<>(Operation.class);
+
+    private static volatile boolean enabled = Boolean.getBoolean("cloud.quinimbus.common.tools.loaderMetrics");
+
+    static {
+        for (var operation : Operation.values()) {
+            ACCUMULATORS.put(operation, new Accumulator());
+        }
+    }
+
+    private static final class Accumulator {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private void record(long nanos) {
+            this.count.increment();
+            this.totalNanos.add(nanos);
+            this.maxNanos.accumulate(nanos);
+        }
+
+        private Timer snapshot() {
+            return new Timer(
+                    this.count.sum(), Duration.ofNanos(this.totalNanos.sum()), Duration.ofNanos(this.maxNanos.get()));
+        }
+
+        private void reset() {
+            this.count.reset();
+            this.totalNanos.reset();
+            this.maxNanos.reset();
+        }
+    }
+
+    private LoaderMetrics() {}
+
+    /// @return whether the timers are updated
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /// Enables or disables the timers, disabling them keeps their current values.
+    ///
+    /// @param enabled whether the timers are updated
+    public static void setEnabled(boolean enabled) {
+        LoaderMetrics.enabled = enabled;
+    }
+
+    /// @return the current timers of all operations
+    public static Map<Operation, Timer> snapshot() {
+        var snapshot = new EnumMap<Operation, Timer>(Operation.class);
+        ACCUMULATORS.forEach((operation, accumulator) -> snapshot.put(operation, accumulator.snapshot()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /// @param operation the operation
+    /// @return the current timer of the operation
+    public static Timer snapshot(Operation operation) {
+        return ACCUMULATORS.get(operation).snapshot();
+    }
+
+    /// Resets all timers to zero.
+    public static void reset() {
+        ACCUMULATORS.values().forEach(Accumulator::reset);
+    }
+
+    /// @return the start time of an operation to pass to [#record(Operation, long)], without reading the clock if the
+    ///   timers are disabled
+    static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    static void record(Operation operation, long startNanos) {
+        if (startNanos != DISABLED) {
+            ACCUMULATORS.get(operation).record(System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.modelling.RecordNames;
+import java.util.function.UnaryOperator;
+
+/// Caches names derived from types and ids, so the static helpers in [Records], [IDs] and [Fields] do not allocate new
+/// strings on repeated calls. Names derived from classes are cached per class, names derived from strings are kept in
+/// bounded caches that overwrite older entries on collision. The naming rules themselves are those of [RecordNames].
+final class NameCache {
+
+    private static final int STRING_CACHE_SIZE = 1024;
+
+    /// The names derived from a type.
+    ///
+    /// @param id the id of the type, its simple name starting lowercase
+    /// @param pluralId the plural of the id
+    record TypeNames(String id, String pluralId) {}
+
+    private static final ClassValue<TypeNames> TYPE_NAMES = new ClassValue<>() {
+        @Override
+        protected TypeNames computeValue(Class<?> type) {
+            var descriptor = RecordDescriptor.indexed(type);
+            if (descriptor.isPresent()) {
+                return new TypeNames(descriptor.get().id(), descriptor.get().pluralId());
+            }
+            var id = ID_FROM_SIMPLE_NAME.get(type.getSimpleName());
+            return new TypeNames(id, PLURALS.get(id));
+        }
+    };
+
+    private static final BoundedCache ID_FROM_SIMPLE_NAME = new BoundedCache(RecordNames::idFromSimpleName);
+
+    private static final BoundedCache PLURALS = new BoundedCache(RecordNames::plural);
+
+    private static final BoundedCache SINGULARS = new BoundedCache(RecordNames::singular);
+
+    private static final BoundedCache GETTER_NAMES = new BoundedCache(NameCache::computeGetterName);
+
+    private NameCache() {}
+
+    static TypeNames typeNames(Class<?> type) {
+        return TYPE_NAMES.get(type);
+    }
+
+    static String idFromSimpleName(String simpleName) {
+        return ID_FROM_SIMPLE_NAME.get(simpleName);
+    }
+
+    static String plural(String id) {
+        return PLURALS.get(id);
+    }
+
+    static String singular(String id) {
+        return SINGULARS.get(id);
+    }
+
+    static String getterName(String fieldName) {
+        return GETTER_NAMES.get(fieldName);
+    }
+
+    private static String computeGetterName(String fieldName) {
+        var result = new StringBuilder();
+        result.append("get");
+        result.append(fieldName.substring(0, 1).toUpperCase());
+        result.append(fieldName.substring(1));
+        return result.toString();
+    }
+
+    /// A direct-mapped cache: every key has exactly one slot, a miss replaces the entry in the slot. Entries are
+    /// immutable, so reads and writes need no locking.
+    private static final class BoundedCache {
+
+        private record Entry(String key, String value) {}
+
+        private final Entry[] entries = new Entry[STRING_CACHE_SIZE];
+
+        private final UnaryOperator<String> function;
+
+        private BoundedCache(UnaryOperator<String> function) {
+            this.function = function;
+        }
+
+        String get(String key) {
+            var hash = key.hashCode();
+            var slot = (hash ^ (hash >>> 16)) & (STRING_CACHE_SIZE - 1);
+            var entry = this.entries[slot];
+            if (entry != null && entry.key().equals(key)) {
+                return entry.value();
+            }
+            var value = this.function.apply(key);
+            this.entries[slot] = new Entry(key, value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.Id;
+import cloud.quinimbus.common.annotations.modelling.Owner;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/// Indexes the owner/child relationships declared with [Owner] on record types, so the children of an owner can be
+/// found without scanning all children.
+///
+/// Each child type must be annotated with `@Owner`, naming the owning record type and the component holding the id of
+/// the owner, and must have a component annotated with [Id]. The index keeps, per child type, a map from owner id to
+/// child ids and from child id to owner id. Updates of the same child or the same owner are serialized on the
+/// respective map entry, different owners are updated concurrently.
+///
+/// @since 0.2
+public final class OwnershipIndex {
+
+    private final Map<Class<?>, Relation> relationsByChildType;
+
+    private final Map<Class<?>, List<Relation>> relationsByOwnerType;
+
+    private static final class Relation {
+
+        private final Class<? extends Record> childType;
+
+        private final Class<? extends Record> ownerType;
+
+        private final Function<Record, Object> ownerIdGetter;
+
+        private final Function<Record, Object> childIdGetter;
+
+        private final ConcurrentMap<Object, Set<Object>> childrenByOwner = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Object, Object> ownerByChild = new ConcurrentHashMap<>();
+
+        private Relation(Class<? extends Record> childType) {
+            var owner = RecordDescriptor.of(childType).owner().orElse(null);
+            if (owner == null) {
+                throw new IllegalArgumentException("%s is not annotated with @Owner".formatted(childType.getName()));
+            }
+            var components = RecordComponents.of(childType);
+            var idComponents = components.annotatedWith(Id.class);
+            if (idComponents.size() != 1) {
+                throw new IllegalArgumentException("%s needs exactly one component annotated with @Id, found %d"
+                        .formatted(childType.getName(), idComponents.size()));
+            }
+            this.childType = childType;
+            this.ownerType = owner.owningEntity();
+            this.ownerIdGetter = getter(childType, owner.field());
+            this.childIdGetter = getter(childType, idComponents.getFirst().name());
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Function<Record, Object> getter(Class<? extends Record> childType, String field) {
+            return (Function<Record, Object>) Records.fieldValueGetter((Class<Record>) childType, field);
+        }
+
+        private void put(Record child) {
+            var childId = this.childIdGetter.apply(child);
+            var ownerId = this.ownerIdGetter.apply(child);
+            this.ownerByChild.compute(childId, (_, previousOwnerId) -> {
+                if (previousOwnerId != null && !previousOwnerId.equals(ownerId)) {
+                    this.removeChild(previousOwnerId, childId);
+                }
+                if (ownerId != null) {
+                    this.childrenByOwner.compute(ownerId, (_, children) -> {
+                        var result = children != null ? children : ConcurrentHashMap.newKeySet();
+                        result.add(childId);
+                        return result;
+                    });
+                }
+                return ownerId;
+            });
+        }
+
+        private boolean remove(Object childId) {
+            var removed = new boolean[1];
+            this.ownerByChild.computeIfPresent(childId, (_, ownerId) -> {
+                this.removeChild(ownerId, childId);
+                removed[0] = true;
+                return null;
+            });
+            return removed[0];
+        }
+
+        private void removeChild(Object ownerId, Object childId) {
+            this.childrenByOwner.computeIfPresent(ownerId, (_, children) -> {
+                children.remove(childId);
+                return children.isEmpty() ? null : children;
+            });
+        }
+
+        private Set<Object> children(Object ownerId) {
+            var children = this.childrenByOwner.get(ownerId);
+            return children == null ? Set.of() : children;
+        }
+    }
+
+    private OwnershipIndex(Collection<Class<? extends Record>> childTypes) {
+        var byChild = new LinkedHashMap<Class<?>, Relation>();
+        var byOwner = new LinkedHashMap<Class<?>, List<Relation>>();
+        for (var childType : childTypes) {
+            var relation = new Relation(childType);
+            byChild.put(childType, relation);
+            byOwner.computeIfAbsent(relation.ownerType, _ -> new ArrayList<>()).add(relation);
+        }
+        this.relationsByChildType = Collections.unmodifiableMap(byChild);
+        this.relationsByOwnerType = Collections.unmodifiableMap(byOwner);
+    }
+
+    /// Creates an empty index for the given child types.
+    ///
+    /// @param childTypes the record types annotated with `@Owner`
+    /// @return the empty index
+    /// @throws IllegalArgumentException if a type is not annotated with `@Owner`, the owner field does not exist or
+    ///   there is not exactly one `@Id` component
+    public static OwnershipIndex of(Collection<Class<? extends Record>> childTypes) {
+        return new OwnershipIndex(childTypes);
+    }
+
+    /// Creates an empty index for the given child types.
+    ///
+    /// @param childTypes the record types annotated with `@Owner`
+    /// @return the empty index
+    /// @throws IllegalArgumentException see [#of(Collection)]
+    @SafeVarargs
+    public static OwnershipIndex of(Class<? extends Record>... childTypes) {
+        return new OwnershipIndex(List.of(childTypes));
+    }
+
+    /// Adds the child to the index or moves it to its current owner.
+    ///
+    /// @param child the child record
+    /// @throws IllegalArgumentException if the type of the child is not indexed
+    public void put(Record child) {
+        this.relation(child.getClass()).put(child);
+    }
+
+    /// Adds all children like [#put(Record)].
+    ///
+    /// @param children the child records
+    public void putAll(Collection<? extends Record> children) {
+        children.forEach(this::put);
+    }
+
+    /// Removes a child from the index.
+    ///
+    /// @param childType the type of the child
+    /// @param childId the id of the child
+    /// @return whether the child was indexed
+    public boolean remove(Class<? extends Record> childType, Object childId) {
+        return this.relation(childType).remove(childId);
+    }
+
+    /// Returns the ids of the children of the given type owned by the owner.
+    ///
+    /// @param childType the type of the children
+    /// @param ownerId the id of the owner
+    /// @return an unmodifiable snapshot of the child ids
+    public Set<Object> children(Class<? extends Record> childType, Object ownerId) {
+        return Set.copyOf(this.relation(childType).children(ownerId));
+    }
+
+    /// Returns the ids of all direct and indirect children of the owner, following the ownership relations of all
+    /// indexed child types.
+    ///
+    /// @param ownerType the type of the owner
+    /// @param ownerId the id of the owner
+    /// @return the ids of all descendants by their type, types without descendants are missing
+    public Map<Class<? extends Record>, Set<Object>> descendants(Class<? extends Record> ownerType, Object ownerId) {
+        var result = new LinkedHashMap<Class<? extends Record>, Set<Object>>();
+        var queue = new ArrayDeque<Map.Entry<Class<?>, Object>>();
+        queue.add(Map.entry(ownerType, ownerId));
+        while (!queue.isEmpty()) {
+            var owner = queue.poll();
+            for (var relation : this.relationsByOwnerType.getOrDefault(owner.getKey(), List.of())) {
+                for (var childId : relation.children(owner.getValue())) {
+                    if (result.computeIfAbsent(relation.childType, _ -> new HashSet<>())
+                            .add(childId)) {
+                        queue.add(Map.entry(relation.childType, childId));
+                    }
+                }
+            }
+        }
+        result.replaceAll((_, ids) -> Collections.unmodifiableSet(ids));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private Relation relation(Class<?> childType) {
+        var relation = this.relationsByChildType.get(childType);
+        if (relation == null) {
+            throw new IllegalArgumentException("%s is not part of this ownership index".formatted(childType.getName()));
+        }
+        return relation;
+    }
+}
@@ -0,0 +1,106 @@
+package cloud.quinimbus.common.tools;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/// Reads the build-time provider index written by `cloud.quinimbus.common.processor.ProviderIndexProcessor`.
+///
+/// The index is located at `META-INF/quinimbus/providers/<binary name of the SPI>`, every line describes one
+/// implementation as tab separated values: binary class name, priority, id and aliases.
+///
+/// The parsed index is cached per class loader and SPI. The entries only hold names, so the cache references the
+/// class loader weakly without keeping it reachable.
+final class ProviderIndex {
+
+    static final String INDEX_LOCATION = "META-INF/quinimbus/providers/";
+
+    private static final Map<ClassLoader, ConcurrentMap<String, List<Entry>>> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    record Entry(String className, int priority, String id, String[] alias) {}
+
+    private ProviderIndex() {}
+
+    /// Returns the class loader that defined the SPI, or the system class loader for SPIs of the platform. Its index
+    /// is read when the [java.util.ServiceLoader] is created by the caller, the index then only covers providers
+    /// visible to the SPI itself and all others are read from their annotations.
+    ///
+    /// @param spi the SPI type
+    /// @return the class loader
+    static ClassLoader classLoaderOf(Class<?> spi) {
+        return spi.getClassLoader() != null ? spi.getClassLoader() : ClassLoader.getSystemClassLoader();
+    }
+
+    /// Reads all index entries for the given SPI visible to the class loader. The same implementation may be listed in
+    /// more than one index resource, it will be returned only once.
+    ///
+    /// @param spi the SPI type
+    /// @param classLoader the class loader to read the index resources from
+    /// @return the cached entries in the order they were found, empty if no index exists for the SPI
+    static List<Entry> read(Class<?> spi, ClassLoader classLoader) {
+        return CACHE.computeIfAbsent(classLoader, _ -> new ConcurrentHashMap<>())
+                .computeIfAbsent(spi.getName(), _ -> readResources(spi, classLoader));
+    }
+
+    /// Drops the cached index entries read from the class loader.
+    ///
+    /// @param classLoader the class loader
+    static void invalidate(ClassLoader classLoader) {
+        CACHE.remove(classLoader);
+    }
+
+    /// Drops all cached index entries.
+    static void invalidate() {
+        CACHE.clear();
+    }
+
+    private static List<Entry> readResources(Class<?> spi, ClassLoader classLoader) {
+        var entries = new LinkedHashMap<String, Entry>();
+        try {
+            var resources = classLoader.getResources(INDEX_LOCATION + spi.getName());
+            while (resources.hasMoreElements()) {
+                readResource(resources.nextElement(), entries);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read the provider index for %s".formatted(spi.getName()), ex);
+        }
+        return entries.isEmpty() ? List.of() : Collections.unmodifiableList(new ArrayList<>(entries.values()));
+    }
+
+    private static void readResource(URL resource, LinkedHashMap<String, Entry> entries) throws IOException {
+        try (var reader =
+                new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                var columns = line.split("\t");
+                if (columns.length < 3) {
+                    throw new IllegalStateException(
+                            "Malformed provider index entry in %s: %s".formatted(resource, line));
+                }
+                entries.putIfAbsent(
+                        columns[0],
+                        new Entry(
+                                columns[0],
+                                Integer.parseInt(columns[1]),
+                                columns[2],
+                                Arrays.copyOfRange(columns, 3, columns.length)));
+            }
+        }
+    }
+}
@@ -3,17 +3,32 @@ package cloud.quinimbus.common.tools;
 import cloud.quinimbus.common.annotations.Provider;
 import cloud.quinimbus.tools.function.LazySingletonSupplier;
 import cloud.quinimbus.tools.lang.TypeRef;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.SequencedMap;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Gatherer;
+import java.util.stream.Stream;
 
 /// Discovers and indexes implementations of a service interface via [java.util.ServiceLoader] that are annotated with
 /// [cloud.quinimbus.common.annotations.Provider].
@@ -31,6 +46,20 @@ import java.util.stream.Gatherer;
 /// - **Failure aggregation:** After processing, if any validation errors were recorded (e.g., aliases while disabled,
 ///   duplicate keys), a single [IllegalStateException] is thrown containing all messages.
 ///
+/// ## Build-time index
+/// The providers are always the ones registered with the [ServiceLoader]. If they were compiled with
+/// `cloud.quinimbus.common.processor.ProviderIndexProcessor`, their ids, aliases and priorities are taken from the
+/// index written by the processor instead of reading their annotations; providers not listed in the index are read
+/// from their annotations. The index is read from the class loader the [ServiceLoader] is created with if it is given
+/// (see [#loadProviders(TypeRef, ClassLoader, boolean)]), otherwise from the class loader of the SPI, and cached per
+/// class loader and SPI. Index entries without a matching registered service, e.g. left by a renamed provider, are
+/// ignored.
+///
+/// The index does not defer class loading: the [ServiceLoader] loads (but does not initialize) every provider class
+/// while iterating, which is how the providers are matched to the index entries. It saves parsing the annotations of
+/// every provider, and with or without the index a provider class is initialized and instantiated only when its
+/// supplier is used first.
+///
 /// ## Result
 /// - Returns an **unmodifiable** [java.util.SequencedMap] from key → [java.util.ServiceLoader.Provider].
 /// - Providers are **lazy**: instances are created only when [java.util.ServiceLoader.Provider#get()] is called.
@@ -38,15 +67,113 @@ import java.util.stream.Gatherer;
 /// @since 0.2
 public class ProviderLoader {
 
-    private record MappedProvider<P>(String id, String[] alias, int priority, LazySingletonSupplier<P> supplier) {}
+    /// A discovered provider, before its keys are validated.
+    ///
+    /// @param id the id of the provider
+    /// @param alias the aliases of the provider
+    /// @param priority the priority of the provider
+    /// @param supplier the lazy instance of the provider
+    record MappedProvider<P>(String id, String[] alias, int priority, LazySingletonSupplier<P> supplier) {}
 
     private record ProviderMapping<P>(String key, LazySingletonSupplier<P> supplier) {}
 
+    /// The cached provider maps of one owner (class loader or module layer) by SPI type and alias policy. The values
+    /// of a [ClassValue] are held by the SPI class, so the SPI class is not reachable from the cache.
+    private static final class OwnerCache extends ClassValue<ConcurrentMap<Boolean, CacheEntry>> {
+
+        /// The entries attached to classes of the owner, released when the cache is invalidated.
+        private final Set<CacheEntry> attached = ConcurrentHashMap.newKeySet();
+
+        @Override
+        protected ConcurrentMap<Boolean, CacheEntry> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+
+        /// Creates the entry for a provider map. A map referencing a class of the owner would keep the owner
+        /// reachable from the cache, such a map is attached to that class instead: the owner keeps its classes and
+        /// with them the map reachable, and the map is collected together with the owner.
+        CacheEntry entry(
+                Object owner, Class<?> spi, SequencedMap<String, ? extends LazySingletonSupplier<?>> providers) {
+            var types = providers.values().stream().map(LazySingletonSupplier::getRawType);
+            var anchor = Stream.<Class<?>>concat(Stream.of(spi), types)
+                    .filter(type -> definedBy(owner, type))
+                    .findFirst();
+            if (anchor.isEmpty()) {
+                return new CacheEntry(providers, null);
+            }
+            var entry = new CacheEntry(null, new WeakReference<>(anchor.get()));
+            ATTACHED.get(anchor.get()).put(entry, providers);
+            this.attached.add(entry);
+            return entry;
+        }
+
+        void release() {
+            this.attached.forEach(CacheEntry::release);
+        }
+
+        private static boolean definedBy(Object owner, Class<?> type) {
+            return owner instanceof ModuleLayer layer
+                    ? type.getModule().getLayer() == layer
+                    : type.getClassLoader() == owner;
+        }
+    }
+
+    /// A cached provider map, held strongly or attached to a class of its owner, see
+    /// [OwnerCache#entry(Object, Class, SequencedMap)].
+    private static final class CacheEntry {
+
+        private final SequencedMap<String, ?> providers;
+
+        private final WeakReference<Class<?>> anchor;
+
+        CacheEntry(SequencedMap<String, ?> providers, WeakReference<Class<?>> anchor) {
+            this.providers = providers;
+            this.anchor = anchor;
+        }
+
+        /// @return the providers, the anchor is reachable as long as the owner is
+        SequencedMap<String, ?> providers() {
+            return this.providers != null
+                    ? this.providers
+                    : ATTACHED.get(Objects.requireNonNull(this.anchor.get())).get(this);
+        }
+
+        void release() {
+            var anchorClass = this.anchor.get();
+            if (anchorClass != null) {
+                ATTACHED.get(anchorClass).remove(this);
+            }
+        }
+    }
+
+    private static final Map<Object, OwnerCache> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final ClassValue<ConcurrentMap<CacheEntry, SequencedMap<String, ?>>> ATTACHED =
+            new ClassValue<>() {
+                @Override
+                protected ConcurrentMap<CacheEntry, SequencedMap<String, ?>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
     @FunctionalInterface
     private interface TriConsumer<P1, P2, P3> {
         void consume(P1 p1, P2 p2, P3 p3);
     }
 
+    /// The metadata read while discovering providers, shared by all SPIs discovered in one pass.
+    private static final class SharedMetadata {
+
+        private final ConcurrentMap<Class<?>, Optional<Provider>> annotations = new ConcurrentHashMap<>();
+
+        /// @return the `@Provider` annotation of `type` or `null` if it is not annotated
+        Provider annotation(TypeRef<?> providerInterface, Class<?> type) {
+            return this.annotations
+                    .computeIfAbsent(type, t -> Optional.ofNullable(readProviderAnnotation(providerInterface, t)))
+                    .orElse(null);
+        }
+    }
+
     private ProviderLoader() {}
 
     /// Discovers implementations of `providerInterface` and returns an **unmodifiable**, priority-ordered
@@ -86,10 +213,264 @@ public class ProviderLoader {
     ///     `aliasSupported == false`, or if duplicate keys are detected.
     public static <S, T> SequencedMap<String, LazySingletonSupplier<T>> loadProviders(
             TypeRef<T> providerInterface, Function<Class<T>, ServiceLoader<S>> loader, boolean aliasSupported) {
+        return loadProviders(
+                providerInterface,
+                loader,
+                ProviderIndex.classLoaderOf(providerInterface.getRawClass()),
+                aliasSupported);
+    }
+
+    /// Discovers the implementations of `providerInterface` registered with the [ServiceLoader] of `classLoader` like
+    /// [#loadProviders(TypeRef, Function, boolean)], reading the build-time provider index from the same class loader.
+    ///
+    /// @param <T> the service (SPI) type
+    /// @param providerInterface the SPI interface used for discovery
+    /// @param classLoader the class loader used to read the provider index and to create the [ServiceLoader]
+    /// @param aliasSupported whether `@Provider(alias)` entries are allowed
+    /// @return an unmodifiable, priority-ordered `SequencedMap` from keys to providers
+    /// @throws IllegalStateException see [#loadProviders(TypeRef, Function, boolean)]
+    public static <T> SequencedMap<String, LazySingletonSupplier<T>> loadProviders(
+            TypeRef<T> providerInterface, ClassLoader classLoader, boolean aliasSupported) {
+        return loadProviders(
+                providerInterface, c -> ServiceLoader.load(c, classLoader), classLoader, aliasSupported);
+    }
+
+    /// Returns the providers of `providerInterface` visible to `classLoader` like
+    /// [#loadProviders(TypeRef, Function, boolean)], but memoizes the result: repeated calls with the same SPI type,
+    /// class loader and alias policy return the **same** unmodifiable map without scanning again.
+    ///
+    /// The cached maps are held until the cache is invalidated, so each provider is instantiated at most once per
+    /// cached map. The class loader is referenced weakly and a cached map holding classes defined by it is attached to
+    /// these classes, so the cache does not prevent a plugin class loader from being collected. Use
+    /// [#invalidateCache(ClassLoader)] to discover the providers again, e.g. after the class loader was replaced.
+    ///
+    /// @param <T> the service (SPI) type
+    /// @param providerInterface the SPI interface used for discovery
+    /// @param classLoader the class loader used to read the provider index and to create the [ServiceLoader]
+    /// @param aliasSupported whether `@Provider(alias)` entries are allowed
+    /// @return an unmodifiable, priority-ordered `SequencedMap` from keys to providers
+    /// @throws IllegalStateException see [#loadProviders(TypeRef, Function, boolean)], failures are not cached
+    public static <T> SequencedMap<String, LazySingletonSupplier<T>> loadCachedProviders(
+            TypeRef<T> providerInterface, ClassLoader classLoader, boolean aliasSupported) {
+        return cached(
+                classLoader,
+                providerInterface,
+                aliasSupported,
+                () -> loadProviders(providerInterface, classLoader, aliasSupported));
+    }
+
+    /// Returns the providers of `providerInterface` found in `layer` (and its parents) like
+    /// [#loadCachedProviders(TypeRef, ClassLoader, boolean)]. The build-time provider index is not used for module
+    /// layers, the providers are discovered by the [ServiceLoader].
+    ///
+    /// @param <T> the service (SPI) type
+    /// @param providerInterface the SPI interface used for discovery
+    /// @param layer the module layer to search for providers
+    /// @param aliasSupported whether `@Provider(alias)` entries are allowed
+    /// @return an unmodifiable, priority-ordered `SequencedMap` from keys to providers
+    /// @throws IllegalStateException see [#loadProviders(TypeRef, Function, boolean)], failures are not cached
+    public static <T> SequencedMap<String, LazySingletonSupplier<T>> loadCachedProviders(
+            TypeRef<T> providerInterface, ModuleLayer layer, boolean aliasSupported) {
+        return cached(
+                layer,
+                providerInterface,
+                aliasSupported,
+                () -> loadProviders(providerInterface, c -> ServiceLoader.load(layer, c), null, aliasSupported));
+    }
+
+    /// Drops all cached provider maps loaded for the class loader and the provider index read from it.
+    ///
+    /// @param classLoader the class loader
+    public static void invalidateCache(ClassLoader classLoader) {
+        release(CACHE.remove(classLoader));
+        ProviderIndex.invalidate(classLoader);
+    }
+
+    /// Drops all cached provider maps loaded for the module layer.
+    ///
+    /// @param layer the module layer
+    public static void invalidateCache(ModuleLayer layer) {
+        release(CACHE.remove(layer));
+    }
+
+    /// Drops all cached provider maps and provider indexes.
+    public static void invalidateCache() {
+        synchronized (CACHE) {
+            CACHE.values().forEach(OwnerCache::release);
+            CACHE.clear();
+        }
+        ProviderIndex.invalidate();
+    }
+
+    private static void release(OwnerCache ownerCache) {
+        if (ownerCache != null) {
+            ownerCache.release();
+        }
+    }
+
+    /// Instantiates all providers of a map returned by this class in parallel, each on its own virtual thread, and
+    /// returns the instances under the same keys and in the same priority order. Keys referring to the same provider
+    /// (id and aliases) share one instance.
+    ///
+    /// @param <T> the service (SPI) type
+    /// @param providers the providers as returned by [#loadProviders(TypeRef, Function, boolean)]
+    /// @return an unmodifiable, priority-ordered `SequencedMap` from keys to provider instances
+    /// @throws IllegalStateException after all instantiations finished, if any of them failed, containing all
+    ///   failures
+    public static <T> SequencedMap<String, T> instantiate(SequencedMap<String, LazySingletonSupplier<T>> providers) {
+        return instantiate(providers, providers.keySet());
+    }
+
+    /// Instantiates the providers registered for `keys` in parallel like [#instantiate(SequencedMap)]. The result
+    /// contains only the requested keys, in the priority order of `providers`.
+    ///
+    /// @param <T> the service (SPI) type
+    /// @param providers the providers as returned by [#loadProviders(TypeRef, Function, boolean)]
+    /// @param keys the ids or aliases of the providers to instantiate
+    /// @return an unmodifiable, priority-ordered `SequencedMap` from the requested keys to provider instances
+    /// @throws IllegalStateException after all instantiations finished, if any of them failed or a key is unknown,
+    ///   containing all failures
+    public static <T> SequencedMap<String, T> instantiate(
+            SequencedMap<String, LazySingletonSupplier<T>> providers, Collection<String> keys) {
         var errorMessages = new ArrayList<String>();
-        var providers = loader.apply((Class<T>) providerInterface.getRawClass()).stream()
-                .map(p -> (ServiceLoader.Provider<T>) p)
-                .map(p -> readProviderInfo(providerInterface, p))
+        keys.stream()
+                .filter(k -> !providers.containsKey(k))
+                .forEach(k -> errorMessages.add("There is no provider for the id or alias %s".formatted(k)));
+        var instantiations = new IdentityHashMap<LazySingletonSupplier<T>, Future<T>>();
+        try (var executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("provider-instantiation-", 0).factory())) {
+            providers.forEach((key, supplier) -> {
+                if (keys.contains(key)) {
+                    instantiations.computeIfAbsent(supplier, s -> executor.submit(s::get));
+                }
+            });
+        }
+        var causes = new ArrayList<Throwable>();
+        var instances = new LinkedHashMap<String, T>();
+        providers.forEach((key, supplier) -> {
+            var instantiation = instantiations.get(supplier);
+            if (instantiation == null || !keys.contains(key)) {
+                return;
+            }
+            if (instantiation.state() == Future.State.SUCCESS) {
+                instances.put(key, instantiation.resultNow());
+            } else if (!causes.contains(instantiation.exceptionNow())) {
+                causes.add(instantiation.exceptionNow());
+                errorMessages.add("Cannot instantiate %s: %s"
+                        .formatted(supplier.getRawType().getName(), instantiation.exceptionNow().getMessage()));
+            }
+        });
+        if (!errorMessages.isEmpty()) {
+            var exception = new IllegalStateException("Errors occurred while instantiating providers:\n%s"
+                    .formatted(errorMessages.stream().collect(Collectors.joining("\n"))));
+            causes.forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return Collections.unmodifiableSequencedMap(instances);
+    }
+
+    /// Discovers and validates the providers of all `providerInterfaces` in one pass, like calling
+    /// [#loadProviders(TypeRef, Function, boolean)] for each of them. The SPIs are processed concurrently, each on its
+    /// own virtual thread, and share the metadata read during discovery: the `@Provider` annotation of an
+    /// implementation registered for several SPIs is only read once.
+    ///
+    /// Like [#loadProviders(TypeRef, Function, boolean)] the result is not memoized: `loader` is an arbitrary function,
+    /// so there is no class loader or module layer to key a cache entry on. Each call discovers all SPIs again, use
+    /// [#loadCachedProviders(TypeRef, ClassLoader, boolean)] per SPI when repeated lookups should be served from the
+    /// cache.
+    ///
+    /// @param providerInterfaces the SPI interfaces used for discovery
+    /// @param loader The serviceloader to use, called with the raw class of each SPI.
+    /// @param aliasSupported whether `@Provider(alias)` entries are allowed
+    /// @return an unmodifiable map in the order of `providerInterfaces` from each SPI to its unmodifiable,
+    ///   priority-ordered `SequencedMap` from keys to providers
+    /// @throws IllegalStateException after all SPIs were processed, if any of them failed discovery or validation,
+    ///   containing the errors of all SPIs
+    public static Map<TypeRef<?>, SequencedMap<String, LazySingletonSupplier<?>>> loadAllProviders(
+            Collection<? extends TypeRef<?>> providerInterfaces,
+            Function<Class<?>, ServiceLoader<?>> loader,
+            boolean aliasSupported) {
+        var metadata = new SharedMetadata();
+        var loadings = new LinkedHashMap<TypeRef<?>, Future<SequencedMap<String, LazySingletonSupplier<?>>>>();
+        try (var executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("provider-discovery-", 0).factory())) {
+            providerInterfaces.forEach(providerInterface -> loadings.computeIfAbsent(providerInterface, spi -> {
+                var indexClassLoader = ProviderIndex.classLoaderOf(spi.getRawClass());
+                return executor.submit(() -> loadProviders(spi, loader, indexClassLoader, aliasSupported, metadata));
+            }));
+        }
+        var errorMessages = new ArrayList<String>();
+        var causes = new ArrayList<Throwable>();
+        var providers = new LinkedHashMap<TypeRef<?>, SequencedMap<String, LazySingletonSupplier<?>>>();
+        loadings.forEach((providerInterface, loading) -> {
+            if (loading.state() == Future.State.SUCCESS) {
+                providers.put(providerInterface, loading.resultNow());
+            } else {
+                causes.add(loading.exceptionNow());
+                errorMessages.add(loading.exceptionNow().getMessage());
+            }
+        });
+        if (!errorMessages.isEmpty()) {
+            var exception = new IllegalStateException("Errors occurred while loading providers for %d of %d SPIs:\n%s"
+                    .formatted(
+                            errorMessages.size(),
+                            loadings.size(),
+                            errorMessages.stream().collect(Collectors.joining("\n"))));
+            causes.forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return Collections.unmodifiableMap(providers);
+    }
+
+    private static <T> SequencedMap<String, LazySingletonSupplier<?>> loadProviders(
+            TypeRef<T> providerInterface,
+            Function<Class<?>, ServiceLoader<?>> loader,
+            ClassLoader indexClassLoader,
+            boolean aliasSupported,
+            SharedMetadata metadata) {
+        Function<Class<T>, ServiceLoader<Object>> typedLoader = c -> (ServiceLoader<Object>) loader.apply(c);
+        var discovered = discoverProviders(providerInterface, typedLoader, indexClassLoader, metadata);
+        return Collections.unmodifiableSequencedMap(validate(providerInterface, discovered, aliasSupported));
+    }
+
+    private static <T> SequencedMap<String, LazySingletonSupplier<T>> cached(
+            Object owner,
+            TypeRef<T> providerInterface,
+            boolean aliasSupported,
+            Supplier<SequencedMap<String, LazySingletonSupplier<T>>> loading) {
+        Objects.requireNonNull(owner);
+        var ownerCache = CACHE.computeIfAbsent(owner, _ -> new OwnerCache());
+        var spi = providerInterface.getRawClass();
+        var entries = ownerCache.get(spi);
+        var cached = entries.get(aliasSupported);
+        if (cached != null) {
+            return (SequencedMap<String, LazySingletonSupplier<T>>) cached.providers();
+        }
+        var loaded = loading.get();
+        var winner = entries.computeIfAbsent(aliasSupported, _ -> ownerCache.entry(owner, spi, loaded));
+        return (SequencedMap<String, LazySingletonSupplier<T>>) winner.providers();
+    }
+
+    private static <S, T> SequencedMap<String, LazySingletonSupplier<T>> loadProviders(
+            TypeRef<T> providerInterface,
+            Function<Class<T>, ServiceLoader<S>> loader,
+            ClassLoader indexClassLoader,
+            boolean aliasSupported) {
+        var discovered = discoverProviders(providerInterface, loader, indexClassLoader);
+        return validate(providerInterface, discovered, aliasSupported);
+    }
+
+    /// Orders the discovered providers by priority and maps them by id and aliases, checking the alias policy and
+    /// duplicate keys according to the class-level contract.
+    ///
+    /// @throws IllegalStateException containing all validation errors
+    static <T> SequencedMap<String, LazySingletonSupplier<T>> validate(
+            TypeRef<T> providerInterface, List<MappedProvider<T>> discovered, boolean aliasSupported) {
+        var validation = new LoaderEvents.ProviderValidation();
+        validation.begin();
+        var validationStart = LoaderMetrics.start();
+        var errorMessages = new ArrayList<String>();
+        var providers = discovered.stream()
                 .sorted((mp1, mp2) -> Integer.compare(mp2.priority(), mp1.priority()))
                 .gather(gatherMappings(providerInterface, aliasSupported, errorMessages::add))
                 .collect(toMap(
@@ -102,6 +483,14 @@ public class ProviderLoader {
                                                 key,
                                                 pm1.getRawType().getName(),
                                                 pm2.getRawType().getName()))));
+        LoaderMetrics.record(LoaderMetrics.Operation.PROVIDER_VALIDATION, validationStart);
+        validation.end();
+        if (validation.shouldCommit()) {
+            validation.spi = providerInterface.toString();
+            validation.keys = providers.size();
+            validation.errors = errorMessages.size();
+            validation.commit();
+        }
         if (!errorMessages.isEmpty()) {
             throw new IllegalStateException("Errors occurred while loading providers for %s:\n%s"
                     .formatted(providerInterface, errorMessages.stream().collect(Collectors.joining("\n"))));
@@ -109,9 +498,60 @@ public class ProviderLoader {
         return Collections.unmodifiableSequencedMap(providers);
     }
 
+    /// Discovers the providers registered with the [ServiceLoader] created by `loader`. Ids, aliases and priorities
+    /// are taken from the build-time index of `classLoader` if it lists the provider, otherwise from its [Provider]
+    /// annotation. Index entries of classes not registered as a service are ignored.
+    ///
+    /// @throws IllegalStateException if a provider lacks `@Provider`
+    static <S, T> List<MappedProvider<T>> discoverProviders(
+            TypeRef<T> providerInterface, Function<Class<T>, ServiceLoader<S>> loader, ClassLoader classLoader) {
+        return discoverProviders(providerInterface, loader, classLoader, new SharedMetadata());
+    }
+
+    private static <S, T> List<MappedProvider<T>> discoverProviders(
+            TypeRef<T> providerInterface,
+            Function<Class<T>, ServiceLoader<S>> loader,
+            ClassLoader classLoader,
+            SharedMetadata metadata) {
+        var discovery = new LoaderEvents.ProviderDiscovery();
+        discovery.begin();
+        var discoveryStart = LoaderMetrics.start();
+        var rawClass = (Class<T>) providerInterface.getRawClass();
+        var indexed = classLoader != null ? ProviderIndex.read(rawClass, classLoader) : List.<ProviderIndex.Entry>of();
+        var entries = new HashMap<String, ProviderIndex.Entry>();
+        indexed.forEach(e -> entries.put(e.className(), e));
+        var discovered = loader.apply(rawClass).stream()
+                .map(p -> (ServiceLoader.Provider<T>) p)
+                .map(p -> {
+                    var entry = entries.get(p.type().getName());
+                    return entry != null
+                            ? readIndexedProviderInfo(providerInterface, p, entry)
+                            : readProviderInfo(providerInterface, p, metadata);
+                })
+                .toList();
+        LoaderMetrics.record(LoaderMetrics.Operation.PROVIDER_DISCOVERY, discoveryStart);
+        discovery.end();
+        if (discovery.shouldCommit()) {
+            discovery.spi = providerInterface.toString();
+            discovery.providers = discovered.size();
+            discovery.indexed = !indexed.isEmpty();
+            discovery.commit();
+        }
+        return discovered;
+    }
+
+    private static <P, T> MappedProvider<P> readIndexedProviderInfo(
+            TypeRef<T> providerInterface, ServiceLoader.Provider<P> p, ProviderIndex.Entry entry) {
+        return new MappedProvider<>(
+                entry.id(),
+                entry.alias(),
+                entry.priority(),
+                new LazySingletonSupplier<>(instrumented(providerInterface, p.type(), p), p.type()));
+    }
+
     private static <P, T> MappedProvider<P> readProviderInfo(
-            TypeRef<T> providerInterface, ServiceLoader.Provider<P> p) {
-        var providerAnno = p.type().getAnnotation(Provider.class);
+            TypeRef<T> providerInterface, ServiceLoader.Provider<P> p, SharedMetadata metadata) {
+        var providerAnno = metadata.annotation(providerInterface, p.type());
         if (providerAnno == null) {
             throw new IllegalStateException("%s %s is missing the @Provider annotation"
                     .formatted(providerInterface, p.type().getName()));
@@ -120,7 +560,41 @@ public class ProviderLoader {
                 providerAnno.id(),
                 providerAnno.alias(),
                 providerAnno.priority(),
-                new LazySingletonSupplier<>(p, p.type()));
+                new LazySingletonSupplier<>(instrumented(providerInterface, p.type(), p), p.type()));
+    }
+
+    private static Provider readProviderAnnotation(TypeRef<?> providerInterface, Class<?> type) {
+        var annotationRead = new LoaderEvents.ProviderAnnotationRead();
+        annotationRead.begin();
+        var annotationReadStart = LoaderMetrics.start();
+        var providerAnno = type.getAnnotation(Provider.class);
+        LoaderMetrics.record(LoaderMetrics.Operation.PROVIDER_ANNOTATION_READ, annotationReadStart);
+        annotationRead.end();
+        if (annotationRead.shouldCommit()) {
+            annotationRead.spi = providerInterface.toString();
+            annotationRead.provider = type.getName();
+            annotationRead.commit();
+        }
+        return providerAnno;
+    }
+
+    private static <P> Supplier<P> instrumented(TypeRef<?> providerInterface, Class<?> type, Supplier<P> supplier) {
+        return () -> {
+            var instantiation = new LoaderEvents.ProviderInstantiation();
+            instantiation.begin();
+            var instantiationStart = LoaderMetrics.start();
+            try {
+                return supplier.get();
+            } finally {
+                LoaderMetrics.record(LoaderMetrics.Operation.PROVIDER_INSTANTIATION, instantiationStart);
+                instantiation.end();
+                if (instantiation.shouldCommit()) {
+                    instantiation.spi = providerInterface.toString();
+                    instantiation.provider = type.getName();
+                    instantiation.commit();
+                }
+            }
+        };
     }
 
     private static <T> Gatherer<MappedProvider<T>, ?, ProviderMapping<T>> gatherMappings(
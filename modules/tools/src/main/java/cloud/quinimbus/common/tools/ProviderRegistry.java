@@ -0,0 +1,175 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.tools.function.LazySingletonSupplier;
+import cloud.quinimbus.tools.lang.TypeRef;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SequencedMap;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/// A live view of the providers of a service interface, collected from several class loaders and module layers that
+/// can be added and removed at runtime.
+///
+/// Every change discovers the providers of the changed source only, merges them with the providers already known from
+/// the other sources and validates the result with the rules of [ProviderLoader] (priority order, alias policy,
+/// duplicate keys). Only if the validation succeeds a new immutable [Snapshot] is published atomically, otherwise the
+/// previous snapshot stays in place. Readers get the current snapshot with a single volatile read and never see a
+/// partially updated map. Changes are serialized among each other.
+///
+/// A provider class visible through more than one source (e.g. a class loader and its parent) is registered once, for
+/// the first source it was discovered in. Providers known before a change keep their [LazySingletonSupplier], so
+/// instances that were already created survive the change. Providers of a removed source are only referenced by older
+/// snapshots and can be collected together with their class loader as soon as these snapshots are not used anymore.
+///
+/// @param <T> the service (SPI) type
+/// @since 0.2
+public final class ProviderRegistry<T> {
+
+    /// An immutable state of the registry.
+    ///
+    /// @param <T> the service (SPI) type
+    /// @param version the version, incremented with every published change
+    /// @param providers the unmodifiable, priority-ordered map from keys to providers like returned by [ProviderLoader]
+    public record Snapshot<T>(long version, SequencedMap<String, LazySingletonSupplier<T>> providers) {}
+
+    private record State<T>(Snapshot<T> snapshot, Map<Object, List<ProviderLoader.MappedProvider<T>>> sources) {}
+
+    private final TypeRef<T> providerInterface;
+
+    private final boolean aliasSupported;
+
+    private final AtomicReference<State<T>> state;
+
+    private ProviderRegistry(TypeRef<T> providerInterface, boolean aliasSupported) {
+        this.providerInterface = providerInterface;
+        this.aliasSupported = aliasSupported;
+        List<ProviderLoader.MappedProvider<T>> none = List.of();
+        var empty = ProviderLoader.validate(providerInterface, none, aliasSupported);
+        this.state = new AtomicReference<>(new State<>(new Snapshot<>(0, empty), Map.of()));
+    }
+
+    /// Creates an empty registry.
+    ///
+    /// @param <T> the service (SPI) type
+    /// @param providerInterface the SPI interface
+    /// @param aliasSupported whether `@Provider(alias)` entries are allowed
+    /// @return the registry without any sources
+    public static <T> ProviderRegistry<T> create(TypeRef<T> providerInterface, boolean aliasSupported) {
+        return new ProviderRegistry<>(providerInterface, aliasSupported);
+    }
+
+    /// Creates an empty registry.
+    ///
+    /// @param <T> the service (SPI) type
+    /// @param providerInterface the SPI interface
+    /// @param aliasSupported whether `@Provider(alias)` entries are allowed
+    /// @return the registry without any sources
+    public static <T> ProviderRegistry<T> create(Class<T> providerInterface, boolean aliasSupported) {
+        return new ProviderRegistry<>(TypeRef.of(providerInterface), aliasSupported);
+    }
+
+    /// @return the current snapshot
+    public Snapshot<T> snapshot() {
+        return this.state.get().snapshot();
+    }
+
+    /// @return the providers of the current snapshot
+    public SequencedMap<String, LazySingletonSupplier<T>> providers() {
+        return this.state.get().snapshot().providers();
+    }
+
+    /// Adds the providers visible to the class loader, using its build-time provider index if present. Adding a
+    /// source again discovers its providers again.
+    ///
+    /// @param classLoader the class loader
+    /// @return the published snapshot
+    /// @throws IllegalStateException if the providers cannot be loaded or the merged providers are not valid, the
+    ///   registry is unchanged then
+    public Snapshot<T> add(ClassLoader classLoader) {
+        Objects.requireNonNull(classLoader);
+        return this.update(classLoader, () -> ProviderLoader.discoverProviders(
+                this.providerInterface, c -> ServiceLoader.load(c, classLoader), classLoader));
+    }
+
+    /// Adds the providers found in the module layer and its parents.
+    ///
+    /// @param layer the module layer
+    /// @return the published snapshot
+    /// @throws IllegalStateException see [#add(ClassLoader)]
+    public Snapshot<T> add(ModuleLayer layer) {
+        Objects.requireNonNull(layer);
+        return this.update(layer, () -> ProviderLoader.discoverProviders(
+                this.providerInterface, c -> ServiceLoader.load(layer, c), null));
+    }
+
+    /// Removes the providers of the class loader.
+    ///
+    /// @param classLoader the class loader
+    /// @return the published snapshot
+    /// @throws IllegalStateException if the remaining providers are not valid (e.g. an alias conflict that was hidden
+    ///   by a duplicate class), the registry is unchanged then
+    public Snapshot<T> remove(ClassLoader classLoader) {
+        return this.update(classLoader, null);
+    }
+
+    /// Removes the providers of the module layer.
+    ///
+    /// @param layer the module layer
+    /// @return the published snapshot
+    /// @throws IllegalStateException see [#remove(ClassLoader)]
+    public Snapshot<T> remove(ModuleLayer layer) {
+        return this.update(layer, null);
+    }
+
+    private synchronized Snapshot<T> update(
+            Object source, Supplier<List<ProviderLoader.MappedProvider<T>>> discovery) {
+        var current = this.state.get();
+        var sources = new LinkedHashMap<>(current.sources());
+        if (discovery == null) {
+            if (sources.remove(source) == null) {
+                return current.snapshot();
+            }
+        } else {
+            sources.put(source, this.reuseSuppliers(current, discovery.get()));
+        }
+        var seenTypes = new HashSet<Class<?>>();
+        var merged = new ArrayList<ProviderLoader.MappedProvider<T>>();
+        for (var providers : sources.values()) {
+            for (var provider : providers) {
+                if (seenTypes.add(provider.supplier().getRawType())) {
+                    merged.add(provider);
+                }
+            }
+        }
+        var snapshot = new Snapshot<>(
+                current.snapshot().version() + 1,
+                ProviderLoader.validate(this.providerInterface, merged, this.aliasSupported));
+        this.state.set(new State<>(snapshot, Collections.unmodifiableMap(sources)));
+        return snapshot;
+    }
+
+    /// Replaces the suppliers of rediscovered provider classes with the suppliers already known, so created instances
+    /// are kept.
+    private List<ProviderLoader.MappedProvider<T>> reuseSuppliers(
+            State<T> current, List<ProviderLoader.MappedProvider<T>> discovered) {
+        var known = new IdentityHashMap<Class<?>, LazySingletonSupplier<T>>();
+        current.sources().values().forEach(providers -> providers.forEach(
+                p -> known.putIfAbsent(p.supplier().getRawType(), p.supplier())));
+        return discovered.stream()
+                .map(p -> {
+                    var supplier = known.get(p.supplier().getRawType());
+                    return supplier == null
+                            ? p
+                            : new ProviderLoader.MappedProvider<>(p.id(), p.alias(), p.priority(), supplier);
+                })
+                .toList();
+    }
+}
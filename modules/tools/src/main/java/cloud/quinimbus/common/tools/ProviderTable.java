@@ -0,0 +1,126 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.tools.function.LazySingletonSupplier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.SequencedMap;
+
+/// An immutable lookup table for a provider map returned by [ProviderLoader] or [ProviderRegistry], meant for hot
+/// paths resolving providers by id.
+///
+/// Every distinct provider gets an `int` handle, its position in priority order. Ids and aliases are resolved to
+/// handles once with [#handle(String)] through an open-addressing table; afterwards [#provider(int)] and [#get(int)]
+/// are plain array accesses without hashing or string comparison. Handles are stable for the lifetime of the table,
+/// all keys of a provider (id and aliases) resolve to the same handle.
+///
+/// @param <T> the service (SPI) type
+/// @since 0.2
+public final class ProviderTable<T> {
+
+    /// The handle returned for unknown keys.
+    public static final int NO_PROVIDER = -1;
+
+    private final SequencedMap<String, LazySingletonSupplier<T>> providerMap;
+
+    private final LazySingletonSupplier<T>[] providers;
+
+    private final String[] ids;
+
+    private final String[] keys;
+
+    private final int[] handles;
+
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    private ProviderTable(SequencedMap<String, LazySingletonSupplier<T>> providerMap) {
+        this.providerMap = providerMap;
+        var handlesBySupplier = new IdentityHashMap<LazySingletonSupplier<T>, Integer>();
+        var distinct = new ArrayList<LazySingletonSupplier<T>>();
+        var ids = new ArrayList<String>();
+        int capacity = Integer.highestOneBit(Math.max(1, providerMap.size() * 2 - 1)) << 1;
+        this.keys = new String[capacity];
+        this.handles = new int[capacity];
+        this.mask = capacity - 1;
+        providerMap.forEach((key, supplier) -> {
+            var handle = handlesBySupplier.computeIfAbsent(supplier, s -> {
+                distinct.add(s);
+                ids.add(key);
+                return distinct.size() - 1;
+            });
+            int slot = spread(key.hashCode()) & this.mask;
+            while (this.keys[slot] != null) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[slot] = key;
+            this.handles[slot] = handle;
+        });
+        this.providers = distinct.toArray(LazySingletonSupplier[]::new);
+        this.ids = ids.toArray(String[]::new);
+    }
+
+    /// Creates the table for a provider map. The first key of every provider in the map is taken as its id.
+    ///
+    /// @param <T> the service (SPI) type
+    /// @param providers the priority-ordered providers as returned by [ProviderLoader]
+    /// @return the table
+    public static <T> ProviderTable<T> of(SequencedMap<String, LazySingletonSupplier<T>> providers) {
+        return new ProviderTable<>(providers);
+    }
+
+    /// Resolves an id or alias to the handle of its provider.
+    ///
+    /// @param key the id or alias
+    /// @return the handle or [#NO_PROVIDER] if the key is unknown
+    public int handle(String key) {
+        int slot = spread(key.hashCode()) & this.mask;
+        String candidate;
+        while ((candidate = this.keys[slot]) != null) {
+            if (candidate.equals(key)) {
+                return this.handles[slot];
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return NO_PROVIDER;
+    }
+
+    /// @param handle a handle returned by [#handle(String)]
+    /// @return the provider
+    /// @throws ArrayIndexOutOfBoundsException if the handle is not valid for this table
+    public LazySingletonSupplier<T> provider(int handle) {
+        return this.providers[handle];
+    }
+
+    /// @param handle a handle returned by [#handle(String)]
+    /// @return the provider instance, created on first access
+    /// @throws ArrayIndexOutOfBoundsException if the handle is not valid for this table
+    public T get(int handle) {
+        return this.providers[handle].get();
+    }
+
+    /// @param handle a handle
+    /// @return the id of the provider, the first key it was registered with
+    public String id(int handle) {
+        return this.ids[handle];
+    }
+
+    /// @return the number of distinct providers, handles range from `0` to `size() - 1` in priority order
+    public int size() {
+        return this.providers.length;
+    }
+
+    /// @return the distinct providers in priority order, the index of each is its handle
+    public List<LazySingletonSupplier<T>> providers() {
+        return List.of(this.providers);
+    }
+
+    /// @return the provider map the table was created for
+    public SequencedMap<String, LazySingletonSupplier<T>> asMap() {
+        return this.providerMap;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,487 @@
+package cloud.quinimbus.common.tools;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/// A binary codec for the records of one type, derived from the record components.
+///
+/// Components are written in declaration order without names or type tags: primitives with their fixed size in the
+/// byte order of the buffer, reference values prefixed by a presence byte. Supported component types are primitives
+/// and their wrappers, [String] (UTF-8, length prefixed), enums (ordinal), `byte[]`, [UUID], [Instant], records of
+/// supported types and [List]s of supported types. Values are read with the cached accessors of [Records] and records
+/// are created with the canonical constructor, both resolved as [MethodHandle]s once per type.
+///
+/// As the encoding carries no schema, [#fingerprint()] identifies the schema, including nested records and enum
+/// constants. A stream of records starts with a header containing the fingerprint, see [#writeHeader(ByteBuffer)],
+/// followed by the records without separators.
+///
+/// @param <T> the record type
+/// @since 0.2
+public final class RecordCodec<T extends Record> {
+
+    private static final int STREAM_MAGIC = 0x514E5243;
+
+    private static final ClassValue<RecordCodec<?>> CODECS = new ClassValue<>() {
+        @Override
+        protected RecordCodec<?> computeValue(Class<?> type) {
+            return new RecordCodec<>(type.asSubclass(Record.class));
+        }
+    };
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(Object value, ByteBuffer target) throws Throwable;
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        Object read(ByteBuffer source);
+    }
+
+    private record Codec(Writer writer, Reader reader) {}
+
+    private final Class<T> type;
+
+    private final Codec[] components;
+
+    private final MethodHandle constructor;
+
+    private final long fingerprint;
+
+    private RecordCodec(Class<T> type) {
+        var recordComponents = RecordComponents.of(type);
+        this.type = type;
+        this.components = recordComponents.components().stream()
+                .map(RecordCodec::componentCodec)
+                .toArray(Codec[]::new);
+        this.constructor = recordComponents
+                .constructor()
+                .asSpreader(Object[].class, this.components.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        this.fingerprint = fingerprint(schema(type, new HashSet<>()));
+    }
+
+    /// Returns the codec for the record type.
+    ///
+    /// @param <T> the record type
+    /// @param type the record type
+    /// @return the cached codec
+    /// @throws IllegalArgumentException if a component type is not supported
+    @SuppressWarnings("unchecked")
+    public static <T extends Record> RecordCodec<T> of(Class<T> type) {
+        return (RecordCodec<T>) CODECS.get(type);
+    }
+
+    /// Returns the fingerprint of the schema. The schema consists of the binary name of the record type and the names
+    /// and types of its components in declaration order, including the names of nested record and enum types and the
+    /// enum constants. Codecs of different record types therefore have different fingerprints even if their
+    /// components are the same, and renaming or moving a record or enum type changes the fingerprint.
+    ///
+    /// @return the fingerprint
+    public long fingerprint() {
+        return this.fingerprint;
+    }
+
+    /// Encodes the record at the position of the buffer.
+    ///
+    /// @param record the record
+    /// @param target the buffer, its position is advanced by the encoded size
+    /// @throws BufferOverflowException if the buffer has not enough space remaining, the position is undefined then
+    public void encode(T record, ByteBuffer target) {
+        try {
+            this.write(record, target);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalArgumentException("Cannot encode record of type %s".formatted(this.type.getName()), ex);
+        }
+    }
+
+    /// Encodes the record into the segment, writing directly to its memory.
+    ///
+    /// @param record the record
+    /// @param target the segment
+    /// @param offset the offset in the segment to start at
+    /// @return the offset after the encoded record
+    /// @throws BufferOverflowException if the segment has not enough space remaining
+    public long encode(T record, MemorySegment target, long offset) {
+        var buffer = asByteBuffer(target, offset);
+        this.encode(record, buffer);
+        return offset + buffer.position();
+    }
+
+    /// Encodes the records starting at `from` until all are written or the next one does not fit into the buffer.
+    ///
+    /// @param records the records
+    /// @param from the index of the first record to write
+    /// @param target the buffer, its position is advanced behind the last completely written record
+    /// @return the index of the first record not written, `records.size()` if all have been written
+    public int encode(List<? extends T> records, int from, ByteBuffer target) {
+        for (int i = from; i < records.size(); i++) {
+            int position = target.position();
+            try {
+                this.encode(records.get(i), target);
+            } catch (BufferOverflowException ex) {
+                target.position(position);
+                return i;
+            }
+        }
+        return records.size();
+    }
+
+    /// Decodes one record at the position of the buffer.
+    ///
+    /// @param source the buffer, its position is advanced by the encoded size
+    /// @return the record
+    /// @throws java.nio.BufferUnderflowException if the buffer ends within the record
+    public T decode(ByteBuffer source) {
+        try {
+            return this.read(source);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalArgumentException("Cannot decode record of type %s".formatted(this.type.getName()), ex);
+        }
+    }
+
+    /// Decodes one record from the segment, reading directly from its memory. Use
+    /// [#decode(MemorySegment, long, Consumer)] to learn where the record ends.
+    ///
+    /// @param source the segment
+    /// @param offset the offset of the record in the segment
+    /// @return the record
+    /// @throws java.nio.BufferUnderflowException if the segment ends within the record
+    public T decode(MemorySegment source, long offset) {
+        return this.decode(asByteBuffer(source, offset));
+    }
+
+    /// Decodes one record from the segment like [#decode(MemorySegment, long)] and returns the offset after it, the
+    /// counterpart of [#encode(Record, MemorySegment, long)].
+    ///
+    /// @param source the segment
+    /// @param offset the offset of the record in the segment
+    /// @param consumer receives the record
+    /// @return the offset after the decoded record
+    /// @throws java.nio.BufferUnderflowException if the segment ends within the record
+    public long decode(MemorySegment source, long offset, Consumer<? super T> consumer) {
+        var buffer = asByteBuffer(source, offset);
+        consumer.accept(this.decode(buffer));
+        return offset + buffer.position();
+    }
+
+    /// Decodes records until the buffer has no bytes remaining.
+    ///
+    /// @param source the buffer
+    /// @param consumer receives the records in order
+    public void decodeAll(ByteBuffer source, Consumer<? super T> consumer) {
+        while (source.hasRemaining()) {
+            consumer.accept(this.decode(source));
+        }
+    }
+
+    /// Writes the header of a record stream, a magic number and the schema fingerprint.
+    ///
+    /// @param target the buffer
+    public void writeHeader(ByteBuffer target) {
+        target.putInt(STREAM_MAGIC).putLong(this.fingerprint);
+    }
+
+    /// Reads the header of a record stream and checks that it was written with the same schema.
+    ///
+    /// @param source the buffer
+    /// @throws IllegalStateException if the buffer does not start with a header or the fingerprint differs
+    public void readHeader(ByteBuffer source) {
+        var magic = source.getInt();
+        if (magic != STREAM_MAGIC) {
+            throw new IllegalStateException("The buffer does not contain a record stream");
+        }
+        var streamFingerprint = source.getLong();
+        if (streamFingerprint != this.fingerprint) {
+            throw new IllegalStateException("The record stream was written with schema %016x, %s has schema %016x"
+                    .formatted(streamFingerprint, this.type.getName(), this.fingerprint));
+        }
+    }
+
+    private void write(Object record, ByteBuffer target) throws Throwable {
+        for (var component : this.components) {
+            component.writer().write(record, target);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T read(ByteBuffer source) throws Throwable {
+        var args = new Object[this.components.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = this.components[i].reader().read(source);
+        }
+        return (T) (Object) this.constructor.invokeExact(args);
+    }
+
+    private static ByteBuffer asByteBuffer(MemorySegment segment, long offset) {
+        return segment.asSlice(offset, Math.min(segment.byteSize() - offset, Integer.MAX_VALUE))
+                .asByteBuffer();
+    }
+
+    private static Codec componentCodec(RecordComponents.Component component) {
+        var type = component.type();
+        if (type.isPrimitive()) {
+            var getter = component.getter(type);
+            if (type == int.class) {
+                return new Codec((r, t) -> t.putInt((int) getter.invokeExact(r)), ByteBuffer::getInt);
+            } else if (type == long.class) {
+                return new Codec((r, t) -> t.putLong((long) getter.invokeExact(r)), ByteBuffer::getLong);
+            } else if (type == double.class) {
+                return new Codec((r, t) -> t.putDouble((double) getter.invokeExact(r)), ByteBuffer::getDouble);
+            } else if (type == float.class) {
+                return new Codec((r, t) -> t.putFloat((float) getter.invokeExact(r)), ByteBuffer::getFloat);
+            } else if (type == short.class) {
+                return new Codec((r, t) -> t.putShort((short) getter.invokeExact(r)), ByteBuffer::getShort);
+            } else if (type == char.class) {
+                return new Codec((r, t) -> t.putChar((char) getter.invokeExact(r)), ByteBuffer::getChar);
+            } else if (type == byte.class) {
+                return new Codec((r, t) -> t.put((byte) getter.invokeExact(r)), ByteBuffer::get);
+            } else {
+                return new Codec(
+                        (r, t) -> t.put((boolean) getter.invokeExact(r) ? (byte) 1 : (byte) 0), s -> s.get() != 0);
+            }
+        }
+        var getter = component.getter();
+        var value = nullable(valueCodec(component.recordComponent().getGenericType()));
+        return new Codec((r, t) -> value.writer().write((Object) getter.invokeExact(r), t), value.reader());
+    }
+
+    private static Codec nullable(Codec codec) {
+        return new Codec(
+                (v, t) -> {
+                    if (v == null) {
+                        t.put((byte) 0);
+                    } else {
+                        t.put((byte) 1);
+                        codec.writer().write(v, t);
+                    }
+                },
+                s -> s.get() == 0 ? null : codec.reader().read(s));
+    }
+
+    private static Codec valueCodec(Type genericType) {
+        var type = rawType(genericType);
+        if (type == Integer.class) {
+            return new Codec((v, t) -> t.putInt((Integer) v), ByteBuffer::getInt);
+        } else if (type == Long.class) {
+            return new Codec((v, t) -> t.putLong((Long) v), ByteBuffer::getLong);
+        } else if (type == Double.class) {
+            return new Codec((v, t) -> t.putDouble((Double) v), ByteBuffer::getDouble);
+        } else if (type == Float.class) {
+            return new Codec((v, t) -> t.putFloat((Float) v), ByteBuffer::getFloat);
+        } else if (type == Short.class) {
+            return new Codec((v, t) -> t.putShort((Short) v), ByteBuffer::getShort);
+        } else if (type == Character.class) {
+            return new Codec((v, t) -> t.putChar((Character) v), ByteBuffer::getChar);
+        } else if (type == Byte.class) {
+            return new Codec((v, t) -> t.put((Byte) v), ByteBuffer::get);
+        } else if (type == Boolean.class) {
+            return new Codec((v, t) -> t.put((Boolean) v ? (byte) 1 : (byte) 0), s -> s.get() != 0);
+        } else if (type == String.class) {
+            return new Codec((v, t) -> writeString((String) v, t), RecordCodec::readString);
+        } else if (type == byte[].class) {
+            return new Codec(
+                    (v, t) -> t.putInt(((byte[]) v).length).put((byte[]) v), s -> {
+                        var bytes = new byte[s.getInt()];
+                        s.get(bytes);
+                        return bytes;
+                    });
+        } else if (type == UUID.class) {
+            return new Codec(
+                    (v, t) -> t.putLong(((UUID) v).getMostSignificantBits())
+                            .putLong(((UUID) v).getLeastSignificantBits()),
+                    s -> new UUID(s.getLong(), s.getLong()));
+        } else if (type == Instant.class) {
+            return new Codec(
+                    (v, t) -> t.putLong(((Instant) v).getEpochSecond()).putInt(((Instant) v).getNano()),
+                    s -> Instant.ofEpochSecond(s.getLong(), s.getInt()));
+        } else if (type.isEnum()) {
+            var constants = type.getEnumConstants();
+            return new Codec((v, t) -> t.putInt(((Enum<?>) v).ordinal()), s -> constants[s.getInt()]);
+        } else if (type.isRecord()) {
+            var recordType = type.asSubclass(Record.class);
+            return new Codec((v, t) -> of(recordType).write(v, t), s -> of(recordType).decode(s));
+        } else if (type == List.class) {
+            var element = nullable(valueCodec(elementType(genericType)));
+            return new Codec(
+                    (v, t) -> {
+                        var list = (List<?>) v;
+                        t.putInt(list.size());
+                        for (var e : list) {
+                            element.writer().write(e, t);
+                        }
+                    },
+                    s -> {
+                        var elements = new Object[s.getInt()];
+                        for (int i = 0; i < elements.length; i++) {
+                            elements[i] = element.reader().read(s);
+                        }
+                        return Collections.unmodifiableList(Arrays.asList(elements));
+                    });
+        }
+        throw new IllegalArgumentException("Type %s is not supported by the record codec".formatted(genericType));
+    }
+
+    private static Class<?> rawType(Type type) {
+        return switch (type) {
+            case Class<?> cls -> cls;
+            case ParameterizedType parameterized -> rawType(parameterized.getRawType());
+            case WildcardType wildcard -> rawType(wildcard.getUpperBounds()[0]);
+            default -> throw new IllegalArgumentException(
+                    "Type %s is not supported by the record codec".formatted(type));
+        };
+    }
+
+    private static Type elementType(Type listType) {
+        if (listType instanceof ParameterizedType parameterized) {
+            return parameterized.getActualTypeArguments()[0];
+        }
+        throw new IllegalArgumentException("Raw type %s is not supported by the record codec".formatted(listType));
+    }
+
+    private static String schema(Type genericType, Set<Class<?>> inProgress) {
+        var type = rawType(genericType);
+        if (type.isEnum()) {
+            return Arrays.stream(type.getEnumConstants())
+                    .map(c -> ((Enum<?>) c).name())
+                    .collect(Collectors.joining(",", "enum " + type.getName() + "{", "}"));
+        } else if (type.isRecord()) {
+            if (!inProgress.add(type)) {
+                return "record " + type.getName();
+            }
+            var schema = RecordComponents.of(type).components().stream()
+                    .map(c -> c.name() + ":" + schema(c.recordComponent().getGenericType(), inProgress))
+                    .collect(Collectors.joining(",", "record " + type.getName() + "{", "}"));
+            inProgress.remove(type);
+            return schema;
+        } else if (type == List.class) {
+            return "List<" + schema(elementType(genericType), inProgress) + ">";
+        }
+        return type.getName();
+    }
+
+    private static long fingerprint(String schema) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < schema.length(); i++) {
+            hash = (hash ^ schema.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /// Writes the string as UTF-8 without encoding it into a temporary array first. Unpaired surrogates are written as
+    /// `?` like [String#getBytes(java.nio.charset.Charset)] does.
+    private static void writeString(String value, ByteBuffer target) {
+        int length = value.length();
+        int utf8Length = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                utf8Length += 1;
+            } else if (c < 0x800) {
+                utf8Length += 2;
+            } else if (!Character.isSurrogate(c)) {
+                utf8Length += 3;
+            } else if (isSurrogatePair(value, i)) {
+                utf8Length += 4;
+                i++;
+            } else {
+                utf8Length += 1;
+            }
+        }
+        target.putInt(utf8Length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                target.put((byte) c);
+            } else if (c < 0x800) {
+                target.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                target.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            } else if (isSurrogatePair(value, i)) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                target.put((byte) (0xF0 | codePoint >> 18))
+                        .put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+                        .put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                target.put((byte) '?');
+            }
+        }
+    }
+
+    private static boolean isSurrogatePair(String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index))
+                && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
+    /// Strings of heap buffers are decoded from the backing array. Strings of other buffers, e.g. of memory segments,
+    /// are decoded in one pass from the buffer into the characters of the string instead of copying the bytes to an
+    /// array first. Malformed input is left to the JDK decoder, which replaces it like the `String` constructor.
+    private static String readString(ByteBuffer source) {
+        int length = source.getInt();
+        if (length < 0 || length > source.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        int start = source.position();
+        var value = source.hasArray()
+                ? new String(source.array(), source.arrayOffset() + start, length, StandardCharsets.UTF_8)
+                : decodeUtf8(source, start, start + length);
+        source.position(start + length);
+        return value;
+    }
+
+    private static String decodeUtf8(ByteBuffer source, int start, int end) {
+        var chars = new char[end - start];
+        int count = 0;
+        int i = start;
+        while (i < end) {
+            int b = source.get(i);
+            if (b >= 0) {
+                chars[count++] = (char) b;
+                i++;
+                continue;
+            }
+            int size = (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : (b & 0xF8) == 0xF0 ? 4 : 0;
+            int codePoint = size == 0 || i + size > end ? -1 : b & (0x7F >> size);
+            for (int j = 1; j < size && codePoint >= 0; j++) {
+                int continuation = source.get(i + j);
+                codePoint = (continuation & 0xC0) == 0x80 ? codePoint << 6 | continuation & 0x3F : -1;
+            }
+            if (codePoint < (size == 2 ? 0x80 : size == 3 ? 0x800 : 0x10000)
+                    || codePoint > Character.MAX_CODE_POINT
+                    || Character.isSurrogate((char) codePoint) && codePoint < 0x10000) {
+                return StandardCharsets.UTF_8.decode(source.slice(start, end - start)).toString();
+            }
+            if (size == 4) {
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+            } else {
+                chars[count++] = (char) codePoint;
+            }
+            i += size;
+        }
+        return new String(chars, 0, count);
+    }
+}
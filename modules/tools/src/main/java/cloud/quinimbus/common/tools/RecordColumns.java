@@ -0,0 +1,262 @@
+package cloud.quinimbus.common.tools;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/// Extracts record components of many records into primitive column arrays, so aggregations can scan arrays instead
+/// of reading (and boxing) every component through [Records#fieldValueGetter(Class, String)].
+///
+/// Supported component types are:
+/// - `int`, `short`, `byte` and `char` as `int[]`
+/// - `long` as `long[]`
+/// - `double` and `float` as `double[]`
+/// - [String] as a dictionary encoded [StringColumn]
+///
+/// Large inputs are split across the common [ForkJoinPool].
+///
+/// @param <T> the record type
+/// @since 0.2
+public final class RecordColumns<T extends Record> {
+
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /// A dictionary encoded string column. `codes[i]` is the index of the value of record `i` in `dictionary`, or `-1`
+    /// if the value is `null`. The dictionary contains every distinct value once, in order of first occurrence.
+    ///
+    /// @param dictionary the distinct values
+    /// @param codes the dictionary index per record
+    public record StringColumn(String[] dictionary, int[] codes) {
+
+        /// @param index the record index
+        /// @return the value of the record, may be `null`
+        public String value(int index) {
+            var code = this.codes[index];
+            return code < 0 ? null : this.dictionary[code];
+        }
+    }
+
+    private final Class<T> recordClass;
+
+    private final int size;
+
+    private final Map<String, Object> columns;
+
+    private RecordColumns(Class<T> recordClass, int size, Map<String, Object> columns) {
+        this.recordClass = recordClass;
+        this.size = size;
+        this.columns = columns;
+    }
+
+    /// Extracts the given components of all records.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @param records the records, must support fast random access for parallel extraction
+    /// @param fields the component names to extract, the columns are kept in the component order of the record
+    /// @return the extracted columns
+    /// @throws IllegalArgumentException if a component does not exist or has an unsupported type
+    public static <T extends Record> RecordColumns<T> extract(
+            Class<T> recordClass, List<? extends T> records, Collection<String> fields) {
+        var components = RecordComponents.of(recordClass);
+        fields.forEach(components::component);
+        var extractors = components.components().stream()
+                .filter(c -> fields.contains(c.name()))
+                .map(c -> extractor(c, records.size()))
+                .toList();
+        var task = new ExtractionTask(records, extractors, 0, records.size());
+        if (records.size() >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(task);
+        } else {
+            task.compute();
+        }
+        var columns = new LinkedHashMap<String, Object>();
+        for (var extractor : extractors) {
+            columns.put(extractor.field(), extractor.finish());
+        }
+        return new RecordColumns<>(recordClass, records.size(), Collections.unmodifiableMap(columns));
+    }
+
+    /// Extracts the given components of all records of the stream.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @param records the records
+    /// @param fields the component names to extract, the columns are kept in the component order of the record
+    /// @return the extracted columns
+    /// @throws IllegalArgumentException if a component does not exist or has an unsupported type
+    public static <T extends Record> RecordColumns<T> extract(
+            Class<T> recordClass, Stream<? extends T> records, Collection<String> fields) {
+        return extract(recordClass, records.toList(), fields);
+    }
+
+    public Class<T> recordClass() {
+        return this.recordClass;
+    }
+
+    /// @return the number of records
+    public int size() {
+        return this.size;
+    }
+
+    public int[] intColumn(String field) {
+        return this.column(field, int[].class);
+    }
+
+    public long[] longColumn(String field) {
+        return this.column(field, long[].class);
+    }
+
+    public double[] doubleColumn(String field) {
+        return this.column(field, double[].class);
+    }
+
+    public StringColumn stringColumn(String field) {
+        return this.column(field, StringColumn.class);
+    }
+
+    private <C> C column(String field, Class<C> columnType) {
+        var column = this.columns.get(field);
+        if (column == null) {
+            throw new IllegalArgumentException("Field %s of %s has not been extracted, extracted fields are %s"
+                    .formatted(field, this.recordClass.getName(), this.columns.keySet()));
+        }
+        if (!columnType.isInstance(column)) {
+            throw new IllegalArgumentException("Field %s of %s is not a %s column"
+                    .formatted(field, this.recordClass.getName(), columnType.getSimpleName()));
+        }
+        return columnType.cast(column);
+    }
+
+    private static Extractor extractor(RecordComponents.Component component, int size) {
+        var type = component.type();
+        if (type == int.class || type == short.class || type == byte.class || type == char.class) {
+            return new IntExtractor(component.name(), component.getter(int.class), new int[size]);
+        } else if (type == long.class) {
+            return new LongExtractor(component.name(), component.getter(long.class), new long[size]);
+        } else if (type == double.class || type == float.class) {
+            return new DoubleExtractor(component.name(), component.getter(double.class), new double[size]);
+        } else if (type == String.class) {
+            return new StringExtractor(component.name(), component.getter(String.class), new String[size]);
+        }
+        throw new IllegalArgumentException("Field %s of type %s cannot be extracted into a column"
+                .formatted(component.name(), type.getName()));
+    }
+
+    private sealed interface Extractor {
+
+        String field();
+
+        void read(Object record, int index) throws Throwable;
+
+        Object finish();
+    }
+
+    private record IntExtractor(String field, MethodHandle getter, int[] values) implements Extractor {
+
+        @Override
+        public void read(Object record, int index) throws Throwable {
+            this.values[index] = (int) this.getter.invokeExact(record);
+        }
+
+        @Override
+        public Object finish() {
+            return this.values;
+        }
+    }
+
+    private record LongExtractor(String field, MethodHandle getter, long[] values) implements Extractor {
+
+        @Override
+        public void read(Object record, int index) throws Throwable {
+            this.values[index] = (long) this.getter.invokeExact(record);
+        }
+
+        @Override
+        public Object finish() {
+            return this.values;
+        }
+    }
+
+    private record DoubleExtractor(String field, MethodHandle getter, double[] values) implements Extractor {
+
+        @Override
+        public void read(Object record, int index) throws Throwable {
+            this.values[index] = (double) this.getter.invokeExact(record);
+        }
+
+        @Override
+        public Object finish() {
+            return this.values;
+        }
+    }
+
+    private record StringExtractor(String field, MethodHandle getter, String[] values) implements Extractor {
+
+        @Override
+        public void read(Object record, int index) throws Throwable {
+            this.values[index] = (String) this.getter.invokeExact(record);
+        }
+
+        @Override
+        public Object finish() {
+            var dictionary = new HashMap<String, Integer>();
+            var codes = new int[this.values.length];
+            for (int i = 0; i < this.values.length; i++) {
+                var value = this.values[i];
+                codes[i] = value == null ? -1 : dictionary.computeIfAbsent(value, _ -> dictionary.size());
+            }
+            var distinct = new String[dictionary.size()];
+            dictionary.forEach((value, code) -> distinct[code] = value);
+            return new StringColumn(distinct, codes);
+        }
+    }
+
+    private static final class ExtractionTask extends RecursiveAction {
+
+        private final List<?> records;
+
+        private final List<Extractor> extractors;
+
+        private final int from;
+
+        private final int to;
+
+        private ExtractionTask(List<?> records, List<Extractor> extractors, int from, int to) {
+            this.records = records;
+            this.extractors = extractors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > PARALLEL_THRESHOLD) {
+                var middle = (this.from + this.to) >>> 1;
+                invokeAll(
+                        new ExtractionTask(this.records, this.extractors, this.from, middle),
+                        new ExtractionTask(this.records, this.extractors, middle, this.to));
+                return;
+            }
+            for (int i = this.from; i < this.to; i++) {
+                var record = this.records.get(i);
+                for (var extractor : this.extractors) {
+                    try {
+                        extractor.read(record, i);
+                    } catch (RuntimeException | Error ex) {
+                        throw ex;
+                    } catch (Throwable ex) {
+                        throw RecordComponents.readFailure(record.getClass(), extractor.field(), ex);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package cloud.quinimbus.common.tools;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/// The components of a record class with accessors resolved once as [MethodHandle]s. Instances are cached per record
+/// class, use [#of(Class)] to get them.
+final class RecordComponents {
+
+    private static final ClassValue<RecordComponents> CACHE = new ClassValue<>() {
+        @Override
+        protected RecordComponents computeValue(Class<?> type) {
+            return new RecordComponents(type);
+        }
+    };
+
+    /// A single component of a record class.
+    ///
+    /// @param index the position of the component in the canonical constructor
+    /// @param name the component name
+    /// @param type the declared (raw) type of the component
+    /// @param recordComponent the reflective component
+    /// @param accessor the accessor with its declared type `(R)C`
+    /// @param getter the accessor adapted to the type `(Object)Object`
+    record Component(
+            int index,
+            String name,
+            Class<?> type,
+            RecordComponent recordComponent,
+            MethodHandle accessor,
+            MethodHandle getter) {
+
+        /// Returns the annotation of the component. Annotations targeting only fields (like the modelling annotations)
+        /// are propagated by the compiler to the private field of the record, so the field is consulted as well.
+        ///
+        /// @param <A> the annotation type
+        /// @param annotationType the annotation type
+        /// @return the annotation or `null` if the component is not annotated
+        <A extends Annotation> A annotation(Class<A> annotationType) {
+            var annotation = this.recordComponent.getAnnotation(annotationType);
+            if (annotation != null) {
+                return annotation;
+            }
+            try {
+                return this.recordComponent
+                        .getDeclaringRecord()
+                        .getDeclaredField(this.name)
+                        .getAnnotation(annotationType);
+            } catch (NoSuchFieldException ex) {
+                return null;
+            }
+        }
+
+        /// Returns the accessor adapted to `(Object)returnType`, applying widening and unboxing conversions.
+        ///
+        /// @param returnType the requested return type
+        /// @return the adapted accessor
+        /// @throws IllegalArgumentException if the component type cannot be converted to `returnType`
+        MethodHandle getter(Class<?> returnType) {
+            try {
+                return this.accessor.asType(MethodType.methodType(returnType, Object.class));
+            } catch (WrongMethodTypeException ex) {
+                throw new IllegalArgumentException(
+                        "Field %s of type %s cannot be read as %s"
+                                .formatted(this.name, this.type.getName(), returnType.getName()),
+                        ex);
+            }
+        }
+    }
+
+    private final Class<?> recordClass;
+
+    private final List<Component> components;
+
+    private final Map<String, Component> componentsByName;
+
+    private volatile MethodHandle constructor;
+
+    private RecordComponents(Class<?> recordClass) {
+        if (!recordClass.isRecord()) {
+            throw new IllegalArgumentException("%s is not a record class".formatted(recordClass.getSimpleName()));
+        }
+        this.recordClass = recordClass;
+        var recordComponents = recordClass.getRecordComponents();
+        this.components = IntStream.range(0, recordComponents.length)
+                .mapToObj(i -> {
+                    var accessor = unreflect(recordClass, recordComponents[i]);
+                    return new Component(
+                            i,
+                            recordComponents[i].getName(),
+                            recordComponents[i].getType(),
+                            recordComponents[i],
+                            accessor,
+                            accessor.asType(MethodType.methodType(Object.class, Object.class)));
+                })
+                .toList();
+        var byName = new LinkedHashMap<String, Component>();
+        this.components.forEach(c -> byName.put(c.name(), c));
+        this.componentsByName = Collections.unmodifiableMap(byName);
+    }
+
+    static RecordComponents of(Class<?> recordClass) {
+        return CACHE.get(recordClass);
+    }
+
+    Class<?> recordClass() {
+        return this.recordClass;
+    }
+
+    List<Component> components() {
+        return this.components;
+    }
+
+    /// Returns the components annotated with the annotation type. For the modelling annotations the build-time
+    /// [RecordDescriptor] is used if present instead of reading the annotations.
+    ///
+    /// @param annotationType the annotation type
+    /// @return all components annotated with the annotation type, in declaration order
+    List<Component> annotatedWith(Class<? extends Annotation> annotationType) {
+        var described = RecordDescriptor.annotatedWith(annotationType);
+        var descriptor = RecordDescriptor.indexed(this.recordClass);
+        if (described != null && descriptor.isPresent()) {
+            var descriptorComponents = descriptor.get().components();
+            return this.components.stream()
+                    .filter(c -> described.test(descriptorComponents.get(c.index())))
+                    .toList();
+        }
+        return this.components.stream()
+                .filter(c -> c.annotation(annotationType) != null)
+                .toList();
+    }
+
+    /// @param name the component name
+    /// @return the component
+    /// @throws IllegalArgumentException if the record class has no component with this name
+    Component component(String name) {
+        var component = this.componentsByName.get(name);
+        if (component == null) {
+            throw unknownComponent(name);
+        }
+        return component;
+    }
+
+    private IllegalArgumentException unknownComponent(String name) {
+        return new IllegalArgumentException("Cannot read field %s on record of type %s, known fields are %s"
+                .formatted(name, this.recordClass.getName(), this.componentsByName.keySet()));
+    }
+
+    /// Returns the getter of the component `name` adapted to `(Object)Object`. If the record class has no component
+    /// with this name, the public no-arg method `name` of the record class is used instead, e.g. a derived value
+    /// computed by the record.
+    ///
+    /// @param name the component or method name
+    /// @return the getter
+    /// @throws IllegalArgumentException if the record class has neither a component nor a public no-arg method with
+    ///   this name
+    MethodHandle getter(String name) {
+        var component = this.componentsByName.get(name);
+        if (component != null) {
+            return component.getter();
+        }
+        Method method;
+        try {
+            method = this.recordClass.getMethod(name);
+        } catch (NoSuchMethodException ex) {
+            throw unknownComponent(name);
+        }
+        var getter = unreflect(this.recordClass, name, method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            getter = MethodHandles.dropArguments(getter, 0, Object.class);
+        }
+        return getter.asType(MethodType.methodType(Object.class, Object.class));
+    }
+
+    /// Returns the canonical constructor, it is resolved on first use.
+    ///
+    /// @return the constructor with its declared type `(C1, ..., Cn)R`
+    /// @throws IllegalArgumentException if the constructor cannot be accessed
+    MethodHandle constructor() {
+        var constructor = this.constructor;
+        if (constructor == null) {
+            constructor = unreflectConstructor(this.recordClass, this.components);
+            this.constructor = constructor;
+        }
+        return constructor;
+    }
+
+    static IllegalArgumentException readFailure(Class<?> recordClass, String field, Throwable cause) {
+        return new IllegalArgumentException(
+                "Cannot read field %s on record of type %s".formatted(field, recordClass.getName()), cause);
+    }
+
+    private static MethodHandle unreflect(Class<?> recordClass, RecordComponent component) {
+        return unreflect(recordClass, component.getName(), component.getAccessor());
+    }
+
+    private static MethodHandle unreflect(Class<?> recordClass, String name, Method accessor) {
+        RecordComponents.class.getModule().addReads(recordClass.getModule());
+        try {
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.lookup().unreflect(accessor);
+            } catch (IllegalAccessException ex) {
+                accessor.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(accessor);
+            }
+            return handle;
+        } catch (IllegalAccessException | RuntimeException ex) {
+            throw readFailure(recordClass, name, ex);
+        }
+    }
+
+    private static MethodHandle unreflectConstructor(Class<?> recordClass, List<Component> components) {
+        RecordComponents.class.getModule().addReads(recordClass.getModule());
+        try {
+            var constructor = recordClass.getDeclaredConstructor(
+                    components.stream().map(Component::type).toArray(Class<?>[]::new));
+            try {
+                return MethodHandles.lookup().unreflectConstructor(constructor);
+            } catch (IllegalAccessException ex) {
+                constructor.setAccessible(true);
+                return MethodHandles.lookup().unreflectConstructor(constructor);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException ex) {
+            throw new IllegalArgumentException(
+                    "Cannot access the canonical constructor of record type %s".formatted(recordClass.getName()), ex);
+        }
+    }
+}
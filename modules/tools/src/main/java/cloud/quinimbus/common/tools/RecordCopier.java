@@ -0,0 +1,194 @@
+package cloud.quinimbus.common.tools;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Map;
+
+/// Creates modified copies of records, like a `with` expression would.
+///
+/// For every component a [MethodHandle] is bound once per record type that reads all other components of the original
+/// record and passes them together with the new value to the canonical constructor, so copying with one modification
+/// creates nothing but the new record. Copying with several modifications calls the canonical constructor once with
+/// one argument array holding the new values and the remaining components of the original record, so it allocates
+/// that array and boxes primitive components. Copiers are cached per record type, use [#of(Class)] to get them.
+///
+/// @param <T> the record type
+/// @since 0.2
+public final class RecordCopier<T extends Record> {
+
+    private static final ClassValue<RecordCopier<?>> COPIERS = new ClassValue<>() {
+        @Override
+        protected RecordCopier<?> computeValue(Class<?> type) {
+            return new RecordCopier<>(type);
+        }
+    };
+
+    /// Marks the arguments not replaced by a copy with several modifications.
+    private static final Object UNSET = new Object();
+
+    private final RecordComponents components;
+
+    private final Class<?>[] valueTypes;
+
+    private final MethodHandle[] withers;
+
+    private final MethodHandle constructor;
+
+    private RecordCopier(Class<?> type) {
+        this.components = RecordComponents.of(type);
+        var componentList = this.components.components();
+        this.valueTypes = componentList.stream()
+                .map(c -> MethodType.methodType(c.type()).wrap().returnType())
+                .toArray(Class<?>[]::new);
+        this.withers = componentList.stream()
+                .map(c -> wither(this.components, c.index()))
+                .toArray(MethodHandle[]::new);
+        this.constructor = this.components
+                .constructor()
+                .asSpreader(Object[].class, componentList.size())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+    }
+
+    /// Returns the copier for the record type.
+    ///
+    /// @param <T> the record type
+    /// @param type the record type
+    /// @return the cached copier
+    @SuppressWarnings("unchecked")
+    public static <T extends Record> RecordCopier<T> of(Class<T> type) {
+        return (RecordCopier<T>) COPIERS.get(type);
+    }
+
+    /// Creates a copy of the record with one component replaced.
+    ///
+    /// @param record the original record
+    /// @param field the name of the component to replace
+    /// @param value the new value, primitive components accept their wrapper type
+    /// @return the copy
+    /// @throws IllegalArgumentException if there is no such component or the value does not match its type
+    public T with(T record, String field, Object value) {
+        return this.with(record, this.components.component(field).index(), value);
+    }
+
+    /// Creates a copy of the record with one component replaced.
+    ///
+    /// @param record the original record
+    /// @param index the index of the component to replace
+    /// @param value the new value, primitive components accept their wrapper type
+    /// @return the copy
+    /// @throws IllegalArgumentException if there is no such component or the value does not match its type
+    @SuppressWarnings("unchecked")
+    public T with(T record, int index, Object value) {
+        this.checkValue(index, value);
+        try {
+            return (T) (Object) this.withers[index].invokeExact((Object) record, value);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw this.copyFailure(ex);
+        }
+    }
+
+    /// Creates a copy of the record with several components replaced, calling the canonical constructor once.
+    ///
+    /// @param record the original record
+    /// @param values the new values by component name, primitive components accept their wrapper type
+    /// @return the copy
+    /// @throws IllegalArgumentException if there is no such component or a value does not match its type
+    public T with(T record, Map<String, ?> values) {
+        var args = this.newArguments();
+        for (var entry : values.entrySet()) {
+            var index = this.components.component(entry.getKey()).index();
+            this.checkValue(index, entry.getValue());
+            args[index] = entry.getValue();
+        }
+        return this.construct(record, args);
+    }
+
+    /// Creates a copy of the record with several components replaced, calling the canonical constructor once.
+    ///
+    /// @param record the original record
+    /// @param indexes the indexes of the components to replace
+    /// @param values the new values in the order of `indexes`, primitive components accept their wrapper type
+    /// @return the copy
+    /// @throws IllegalArgumentException if there is no such component or a value does not match its type
+    public T with(T record, int[] indexes, Object[] values) {
+        if (indexes.length != values.length) {
+            throw new IllegalArgumentException("Got %d indexes but %d values".formatted(indexes.length, values.length));
+        }
+        var args = this.newArguments();
+        for (int i = 0; i < indexes.length; i++) {
+            this.checkValue(indexes[i], values[i]);
+            args[indexes[i]] = values[i];
+        }
+        return this.construct(record, args);
+    }
+
+    private Object[] newArguments() {
+        var args = new Object[this.withers.length];
+        Arrays.fill(args, UNSET);
+        return args;
+    }
+
+    /// Reads the components not replaced in `args` from the record and passes all of them to the constructor.
+    @SuppressWarnings("unchecked")
+    private T construct(T record, Object[] args) {
+        try {
+            for (var component : this.components.components()) {
+                if (args[component.index()] == UNSET) {
+                    args[component.index()] = component.getter().invokeExact((Object) record);
+                }
+            }
+            return (T) (Object) this.constructor.invokeExact(args);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw this.copyFailure(ex);
+        }
+    }
+
+    private void checkValue(int index, Object value) {
+        if (index < 0 || index >= this.valueTypes.length) {
+            throw new IllegalArgumentException("Record type %s has no component at index %d"
+                    .formatted(this.components.recordClass().getName(), index));
+        }
+        var component = this.components.components().get(index);
+        if (value == null ? component.type().isPrimitive() : !this.valueTypes[index].isInstance(value)) {
+            throw new IllegalArgumentException("Cannot set field %s of type %s on record of type %s to %s"
+                    .formatted(
+                            component.name(),
+                            component.type().getName(),
+                            this.components.recordClass().getName(),
+                            value == null ? "null" : "a value of type " + value.getClass().getName()));
+        }
+    }
+
+    private IllegalArgumentException copyFailure(Throwable cause) {
+        return new IllegalArgumentException(
+                "Cannot copy record of type %s".formatted(this.components.recordClass().getName()), cause);
+    }
+
+    /// Builds `(Object record, Object value)Object` calling the canonical constructor with the value at `index` and
+    /// all other arguments read from the record.
+    private static MethodHandle wither(RecordComponents components, int index) {
+        var componentList = components.components();
+        var filters = new MethodHandle[componentList.size()];
+        var reorder = new int[componentList.size()];
+        for (var component : componentList) {
+            if (component.index() != index) {
+                filters[component.index()] = component.accessor();
+            } else {
+                reorder[component.index()] = 1;
+            }
+        }
+        var filtered = MethodHandles.filterArguments(components.constructor(), 0, filters);
+        var recordClass = components.recordClass();
+        var permuted = MethodHandles.permuteArguments(
+                filtered,
+                MethodType.methodType(recordClass, recordClass, componentList.get(index).type()),
+                reorder);
+        return permuted.asType(MethodType.methodType(Object.class, Object.class, Object.class));
+    }
+}
@@ -0,0 +1,263 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.Id;
+import cloud.quinimbus.common.annotations.modelling.Naming;
+import cloud.quinimbus.common.annotations.modelling.Owner;
+import cloud.quinimbus.common.annotations.modelling.References;
+import cloud.quinimbus.common.annotations.modelling.Searchable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/// Describes a record type and its modelling annotations: the id and plural id of the type, the components with their
+/// types and the [Id], [Naming], [Searchable], [References] and [Owner] annotations.
+///
+/// Descriptors written at build time by `cloud.quinimbus.common.processor.RecordDescriptorProcessor` to
+/// `META-INF/quinimbus/records/<binary name of the record>` are used when present, otherwise the descriptor is derived
+/// by reflection. [Records], [IDs] and the indexes of this package consult the descriptors, so record types with a
+/// generated descriptor are not scanned for annotations at runtime.
+///
+/// @param type the record type
+/// @param id the id of the type
+/// @param pluralId the plural of the id
+/// @param components the components in declaration order
+/// @param owner the owner declared by [Owner], if any
+/// @param indexed whether the descriptor was generated at build time
+/// @since 0.2
+public record RecordDescriptor(
+        Class<? extends Record> type,
+        String id,
+        String pluralId,
+        List<Component> components,
+        Optional<Ownership> owner,
+        boolean indexed) {
+
+    static final String INDEX_LOCATION = "META-INF/quinimbus/records/";
+
+    private static final Map<String, Class<?>> PRIMITIVES = Map.of(
+            "boolean", boolean.class,
+            "byte", byte.class,
+            "short", short.class,
+            "char", char.class,
+            "int", int.class,
+            "long", long.class,
+            "float", float.class,
+            "double", double.class);
+
+    private static final ClassValue<Optional<RecordDescriptor>> INDEXED = new ClassValue<>() {
+        @Override
+        protected Optional<RecordDescriptor> computeValue(Class<?> type) {
+            return read(type);
+        }
+    };
+
+    private static final ClassValue<RecordDescriptor> DESCRIPTORS = new ClassValue<>() {
+        @Override
+        protected RecordDescriptor computeValue(Class<?> type) {
+            return INDEXED.get(type).orElseGet(() -> reflect(type.asSubclass(Record.class)));
+        }
+    };
+
+    /// A component of a record type.
+    ///
+    /// @param name the name of the component
+    /// @param type the erased type of the component
+    /// @param idName the value of the [Id] annotation or `null`
+    /// @param naming whether the component is annotated with [Naming]
+    /// @param searchable whether the component is annotated with [Searchable]
+    /// @param references the value of the [References] annotation or `null`
+    public record Component(
+            String name, Class<?> type, String idName, boolean naming, boolean searchable, Class<?> references) {}
+
+    /// The owner of a record type as declared by [Owner].
+    ///
+    /// @param owningEntity the owning record type
+    /// @param field the component holding the id of the owner
+    public record Ownership(Class<? extends Record> owningEntity, String field) {}
+
+    public RecordDescriptor {
+        components = List.copyOf(components);
+    }
+
+    /// Returns the descriptor of the record type, read from the build-time index or derived by reflection.
+    ///
+    /// @param type the record type
+    /// @return the cached descriptor
+    /// @throws IllegalStateException if the build-time descriptor is malformed, refers to missing classes or its
+    ///     components do not match the components of the record type
+    public static RecordDescriptor of(Class<? extends Record> type) {
+        return DESCRIPTORS.get(type);
+    }
+
+    /// Returns the descriptor of the record type if it was generated at build time.
+    ///
+    /// @param type the type
+    /// @return the cached descriptor or an empty optional
+    /// @throws IllegalStateException if the build-time descriptor is malformed, refers to missing classes or its
+    ///     components do not match the components of the record type
+    static Optional<RecordDescriptor> indexed(Class<?> type) {
+        return type.isRecord() ? INDEXED.get(type) : Optional.empty();
+    }
+
+    /// @return the component annotated with [Id], if any
+    public Optional<Component> idComponent() {
+        return this.components.stream().filter(c -> c.idName() != null).findFirst();
+    }
+
+    /// @return the components annotated with [Naming]
+    public List<Component> namingComponents() {
+        return this.components.stream().filter(Component::naming).toList();
+    }
+
+    /// @return the components annotated with [Searchable]
+    public List<Component> searchableComponents() {
+        return this.components.stream().filter(Component::searchable).toList();
+    }
+
+    /// @return the components annotated with [References]
+    public List<Component> referenceComponents() {
+        return this.components.stream().filter(c -> c.references() != null).toList();
+    }
+
+    /// Returns a predicate selecting the components annotated with a modelling annotation, or `null` if the annotation
+    /// type is not described.
+    static Predicate<Component> annotatedWith(Class<? extends Annotation> annotationType) {
+        if (annotationType == Id.class) {
+            return c -> c.idName() != null;
+        } else if (annotationType == Naming.class) {
+            return Component::naming;
+        } else if (annotationType == Searchable.class) {
+            return Component::searchable;
+        } else if (annotationType == References.class) {
+            return c -> c.references() != null;
+        }
+        return null;
+    }
+
+    private static RecordDescriptor reflect(Class<? extends Record> type) {
+        var names = NameCache.typeNames(type);
+        var components = RecordComponents.of(type).components().stream()
+                .map(c -> {
+                    var id = c.annotation(Id.class);
+                    var references = c.annotation(References.class);
+                    return new Component(
+                            c.name(),
+                            c.type(),
+                            id != null ? id.value() : null,
+                            c.annotation(Naming.class) != null,
+                            c.annotation(Searchable.class) != null,
+                            references != null ? references.value() : null);
+                })
+                .toList();
+        var owner = Optional.ofNullable(type.getAnnotation(Owner.class))
+                .map(o -> new Ownership(o.owningEntity(), o.field()));
+        return new RecordDescriptor(type, names.id(), names.pluralId(), components, owner, false);
+    }
+
+    private static Optional<RecordDescriptor> read(Class<?> type) {
+        var classLoader = type.getClassLoader() != null ? type.getClassLoader() : ClassLoader.getSystemClassLoader();
+        var resource = classLoader.getResource(INDEX_LOCATION + type.getName());
+        if (resource == null) {
+            return Optional.empty();
+        }
+        String id = null;
+        String pluralId = null;
+        Ownership owner = null;
+        var components = new ArrayList<Component>();
+        try (var reader =
+                new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                var columns = line.split("\t");
+                switch (columns[0]) {
+                    case "id" -> id = columns[1];
+                    case "plural" -> pluralId = columns[1];
+                    case "owner" -> owner = new Ownership(
+                            resolve(columns[1], classLoader).asSubclass(Record.class), columns[2]);
+                    case "component" -> components.add(component(columns, classLoader));
+                    default -> throw new IllegalStateException(
+                            "Malformed record descriptor entry in %s: %s".formatted(resource, line));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read the record descriptor for %s".formatted(type.getName()), ex);
+        } catch (RuntimeException ex) {
+            throw new IllegalStateException("Malformed record descriptor %s".formatted(resource), ex);
+        }
+        if (id == null || pluralId == null) {
+            throw new IllegalStateException(
+                    "Malformed record descriptor %s, id or plural is missing".formatted(resource));
+        }
+        checkComponents(type, components, resource);
+        return Optional.of(new RecordDescriptor(
+                type.asSubclass(Record.class), id, pluralId, components, Optional.ofNullable(owner), true));
+    }
+
+    /// A descriptor written for an older version of the record type (e.g. a stale build output) must not be used, the
+    /// components are looked up by their index.
+    private static void checkComponents(Class<?> type, List<Component> components, URL resource) {
+        var declared = RecordComponents.of(type).components();
+        var matches = declared.size() == components.size();
+        for (int i = 0; matches && i < declared.size(); i++) {
+            matches = declared.get(i).name().equals(components.get(i).name())
+                    && declared.get(i).type() == components.get(i).type();
+        }
+        if (!matches) {
+            throw new IllegalStateException("Record descriptor %s does not match the components of %s: %s"
+                    .formatted(
+                            resource,
+                            type.getName(),
+                            declared.stream()
+                                    .map(c -> c.type().getTypeName() + " " + c.name())
+                                    .collect(Collectors.joining(", "))));
+        }
+    }
+
+    private static Component component(String[] columns, ClassLoader classLoader) {
+        String idName = null;
+        boolean naming = false;
+        boolean searchable = false;
+        Class<?> references = null;
+        for (int i = 3; i < columns.length; i++) {
+            var annotation = columns[i];
+            if (annotation.startsWith("id=")) {
+                idName = annotation.substring(3);
+            } else if (annotation.equals("naming")) {
+                naming = true;
+            } else if (annotation.equals("searchable")) {
+                searchable = true;
+            } else if (annotation.startsWith("references=")) {
+                references = resolve(annotation.substring(11), classLoader);
+            } else {
+                throw new IllegalArgumentException("Unknown annotation %s".formatted(annotation));
+            }
+        }
+        return new Component(
+                columns[1], resolve(columns[2], classLoader), idName, naming, searchable, references);
+    }
+
+    private static Class<?> resolve(String name, ClassLoader classLoader) {
+        var primitive = PRIMITIVES.get(name);
+        if (primitive != null) {
+            return primitive;
+        }
+        try {
+            return Class.forName(name, false, classLoader);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalArgumentException("Unknown class %s".formatted(name), ex);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package cloud.quinimbus.common.tools;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/// Compares two instances of a record type component by component.
+///
+/// The changed components are reported as a bitmask, bit `i` stands for the component at index `i` of the canonical
+/// constructor. Primitive components are compared without boxing like the generated `equals` of records does, reference
+/// components with [Objects#equals(Object, Object)]. Identical instances are not compared at all. Differs are cached
+/// per record type, use [#of(Class)] to get them.
+///
+/// @param <T> the record type
+/// @since 0.2
+public final class RecordDiffer<T extends Record> {
+
+    private static final ClassValue<RecordDiffer<?>> DIFFERS = new ClassValue<>() {
+        @Override
+        protected RecordDiffer<?> computeValue(Class<?> type) {
+            return new RecordDiffer<>(type);
+        }
+    };
+
+    @FunctionalInterface
+    private interface ComponentComparator {
+        boolean equal(Object a, Object b) throws Throwable;
+    }
+
+    /// The changes between two instances.
+    ///
+    /// @param <T> the record type
+    /// @param differ the differ that compared the instances
+    /// @param oldRecord the old instance
+    /// @param newRecord the new instance
+    /// @param mask the bitmask of the changed components
+    public record Changes<T extends Record>(RecordDiffer<T> differ, T oldRecord, T newRecord, long mask) {
+
+        /// @return the names of the changed components in declaration order
+        public List<String> changedFields() {
+            return this.differ.fieldNames(this.mask);
+        }
+
+        /// @param field the component name
+        /// @return whether the component changed
+        /// @throws IllegalArgumentException if the record type has no component with this name
+        public boolean isChanged(String field) {
+            return (this.mask & this.differ.mask(field)) != 0;
+        }
+
+        /// @param field the component name
+        /// @return the value of the component in the old instance
+        /// @throws IllegalArgumentException if the record type has no component with this name
+        public Object oldValue(String field) {
+            return this.differ.read(this.oldRecord, field);
+        }
+
+        /// @param field the component name
+        /// @return the value of the component in the new instance
+        /// @throws IllegalArgumentException if the record type has no component with this name
+        public Object newValue(String field) {
+            return this.differ.read(this.newRecord, field);
+        }
+    }
+
+    private final RecordComponents components;
+
+    private final ComponentComparator[] comparators;
+
+    private RecordDiffer(Class<?> type) {
+        this.components = RecordComponents.of(type);
+        if (this.components.components().size() > Long.SIZE) {
+            throw new IllegalArgumentException("Cannot diff record type %s with more than %d components"
+                    .formatted(type.getName(), Long.SIZE));
+        }
+        this.comparators = this.components.components().stream()
+                .map(RecordDiffer::comparator)
+                .toArray(ComponentComparator[]::new);
+    }
+
+    /// Returns the differ for the record type.
+    ///
+    /// @param <T> the record type
+    /// @param type the record type
+    /// @return the cached differ
+    /// @throws IllegalArgumentException if the record type has more than 64 components
+    @SuppressWarnings("unchecked")
+    public static <T extends Record> RecordDiffer<T> of(Class<T> type) {
+        return (RecordDiffer<T>) DIFFERS.get(type);
+    }
+
+    /// Compares the instances.
+    ///
+    /// @param oldRecord the old instance
+    /// @param newRecord the new instance
+    /// @return the bitmask of the changed components, `0` if the instances are equal
+    public long changes(T oldRecord, T newRecord) {
+        if (oldRecord == newRecord) {
+            return 0;
+        }
+        long mask = 0;
+        try {
+            for (int i = 0; i < this.comparators.length; i++) {
+                if (!this.comparators[i].equal(oldRecord, newRecord)) {
+                    mask |= 1L << i;
+                }
+            }
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalArgumentException(
+                    "Cannot compare records of type %s".formatted(this.components.recordClass().getName()), ex);
+        }
+        return mask;
+    }
+
+    /// Compares the instances and keeps them to read the old and new values of the changed components.
+    ///
+    /// @param oldRecord the old instance
+    /// @param newRecord the new instance
+    /// @return the changes or an empty optional if the instances are equal
+    public Optional<Changes<T>> diff(T oldRecord, T newRecord) {
+        var mask = this.changes(oldRecord, newRecord);
+        return mask == 0 ? Optional.empty() : Optional.of(new Changes<>(this, oldRecord, newRecord, mask));
+    }
+
+    /// @param fields the component names
+    /// @return the bitmask with the bits of the components set
+    /// @throws IllegalArgumentException if the record type has no component with one of the names
+    public long mask(String... fields) {
+        long mask = 0;
+        for (var field : fields) {
+            mask |= 1L << this.components.component(field).index();
+        }
+        return mask;
+    }
+
+    /// @param mask a bitmask of components
+    /// @return the names of the components in the bitmask in declaration order
+    public List<String> fieldNames(long mask) {
+        var names = new ArrayList<String>(Long.bitCount(mask));
+        for (var component : this.components.components()) {
+            if ((mask & 1L << component.index()) != 0) {
+                names.add(component.name());
+            }
+        }
+        return List.copyOf(names);
+    }
+
+    private Object read(Object record, String field) {
+        var getter = this.components.component(field).getter();
+        try {
+            return getter.invokeExact(record);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw RecordComponents.readFailure(this.components.recordClass(), field, ex);
+        }
+    }
+
+    private static ComponentComparator comparator(RecordComponents.Component component) {
+        var type = component.type();
+        MethodHandle getter = component.getter(type.isPrimitive() ? type : Object.class);
+        if (type == int.class) {
+            return (a, b) -> (int) getter.invokeExact(a) == (int) getter.invokeExact(b);
+        } else if (type == long.class) {
+            return (a, b) -> (long) getter.invokeExact(a) == (long) getter.invokeExact(b);
+        } else if (type == double.class) {
+            return (a, b) -> Double.compare((double) getter.invokeExact(a), (double) getter.invokeExact(b)) == 0;
+        } else if (type == float.class) {
+            return (a, b) -> Float.compare((float) getter.invokeExact(a), (float) getter.invokeExact(b)) == 0;
+        } else if (type == boolean.class) {
+            return (a, b) -> (boolean) getter.invokeExact(a) == (boolean) getter.invokeExact(b);
+        } else if (type == short.class) {
+            return (a, b) -> (short) getter.invokeExact(a) == (short) getter.invokeExact(b);
+        } else if (type == char.class) {
+            return (a, b) -> (char) getter.invokeExact(a) == (char) getter.invokeExact(b);
+        } else if (type == byte.class) {
+            return (a, b) -> (byte) getter.invokeExact(a) == (byte) getter.invokeExact(b);
+        }
+        return (a, b) -> {
+            Object oldValue = getter.invokeExact(a);
+            Object newValue = getter.invokeExact(b);
+            return Objects.equals(oldValue, newValue);
+        };
+    }
+}
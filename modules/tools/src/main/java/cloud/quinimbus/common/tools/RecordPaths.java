@@ -0,0 +1,263 @@
+package cloud.quinimbus.common.tools;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/// Compiles dotted component paths like `address.city` into accessors and comparators for records.
+///
+/// Each segment of a path names a component of the record type reached by the previous segments, all segments but
+/// the last must be of a record type. The accessors of all segments are composed into one [MethodHandle] that returns
+/// `null` as soon as an intermediate record is `null`. Comparators compare primitive components without boxing and
+/// reference components by their natural order. Compiled paths and comparators are cached per record type.
+///
+/// @since 0.2
+public final class RecordPaths {
+
+    private static final MethodHandle IS_NULL;
+
+    private static final MethodHandle NULL_RESULT =
+            MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0, Object.class);
+
+    static {
+        try {
+            IS_NULL = MethodHandles.lookup()
+                    .findStatic(Objects.class, "isNull", MethodType.methodType(boolean.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    /// How `null` values (including values not reachable because an intermediate record is `null`) are ordered.
+    public enum Nulls {
+        FIRST,
+        LAST
+    }
+
+    /// A key to sort by.
+    ///
+    /// @param path the dotted component path
+    /// @param descending whether to sort in descending order, the order of `null` values is not reversed
+    /// @param nulls the order of `null` values
+    public record SortKey(String path, boolean descending, Nulls nulls) {
+
+        /// @param path the dotted component path
+        /// @return an ascending key with `null` values last
+        public static SortKey ascending(String path) {
+            return new SortKey(path, false, Nulls.LAST);
+        }
+
+        /// @param path the dotted component path
+        /// @return a descending key with `null` values last
+        public static SortKey descending(String path) {
+            return new SortKey(path, true, Nulls.LAST);
+        }
+
+        /// @param nulls the order of `null` values
+        /// @return this key with the order of `null` values changed
+        public SortKey withNulls(Nulls nulls) {
+            return new SortKey(this.path, this.descending, nulls);
+        }
+    }
+
+    /// A compiled path.
+    ///
+    /// @param parent `(Object)Object` reading the record holding the last component, `null` if it is unreachable
+    /// @param leaf the last component
+    /// @param accessor `(Object)Object` reading the value of the path
+    private record CompiledPath(MethodHandle parent, RecordComponents.Component leaf, MethodHandle accessor) {}
+
+    @FunctionalInterface
+    private interface KeyComparator {
+        int compare(Object a, Object b) throws Throwable;
+    }
+
+    private static final class TypeCache {
+        private final ConcurrentMap<String, CompiledPath> paths = new ConcurrentHashMap<>();
+        private final ConcurrentMap<List<SortKey>, Comparator<?>> comparators = new ConcurrentHashMap<>();
+    }
+
+    private static final ClassValue<TypeCache> CACHE = new ClassValue<>() {
+        @Override
+        protected TypeCache computeValue(Class<?> type) {
+            return new TypeCache();
+        }
+    };
+
+    private RecordPaths() {}
+
+    /// Returns an accessor for the path.
+    ///
+    /// @param <T> the record type
+    /// @param <V> the type of the value
+    /// @param recordClass the record class
+    /// @param path the dotted component path
+    /// @return the accessor, returning `null` if an intermediate record is `null`
+    /// @throws IllegalArgumentException if a segment is no component or an intermediate component is no record
+    @SuppressWarnings("unchecked")
+    public static <T extends Record, V> Function<T, V> accessor(Class<T> recordClass, String path) {
+        var accessor = compile(recordClass, path).accessor();
+        return r -> {
+            try {
+                return (V) (Object) accessor.invokeExact((Object) r);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw RecordComponents.readFailure(recordClass, path, ex);
+            }
+        };
+    }
+
+    /// Returns a comparator sorting by the keys in order, the first key that differs decides.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @param keys the keys to sort by
+    /// @return the cached comparator
+    /// @throws IllegalArgumentException if a path is not valid or its value is neither primitive nor [Comparable]
+    @SuppressWarnings("unchecked")
+    public static <T extends Record> Comparator<T> comparator(Class<T> recordClass, SortKey... keys) {
+        return (Comparator<T>) CACHE.get(recordClass)
+                .comparators
+                .computeIfAbsent(List.of(keys), k -> createComparator(recordClass, k));
+    }
+
+    /// Returns a comparator sorting ascending by the paths in order, with `null` values last.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @param paths the dotted component paths
+    /// @return the cached comparator
+    /// @throws IllegalArgumentException see [#comparator(Class, SortKey...)]
+    public static <T extends Record> Comparator<T> comparator(Class<T> recordClass, String... paths) {
+        return comparator(
+                recordClass, Arrays.stream(paths).map(SortKey::ascending).toArray(SortKey[]::new));
+    }
+
+    /// Sorts a copy of the records with [Arrays#parallelSort(Object[], Comparator)], which uses the common fork/join
+    /// pool for large lists.
+    ///
+    /// @param <T> the element type
+    /// @param records the records
+    /// @param comparator the comparator
+    /// @return an unmodifiable sorted list
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> parallelSorted(List<? extends T> records, Comparator<? super T> comparator) {
+        var array = (T[]) records.toArray();
+        Arrays.parallelSort(array, comparator);
+        return Collections.unmodifiableList(Arrays.asList(array));
+    }
+
+    private static CompiledPath compile(Class<?> recordClass, String path) {
+        return CACHE.get(recordClass).paths.computeIfAbsent(path, p -> compilePath(recordClass, p));
+    }
+
+    private static CompiledPath compilePath(Class<?> recordClass, String path) {
+        var segments = path.split("\\.", -1);
+        var type = recordClass;
+        var parent = MethodHandles.identity(Object.class);
+        RecordComponents.Component leaf = null;
+        for (int i = 0; i < segments.length; i++) {
+            if (!type.isRecord()) {
+                throw new IllegalArgumentException("Cannot resolve path %s on record of type %s, %s is no record"
+                        .formatted(path, recordClass.getName(), String.join(".", Arrays.copyOf(segments, i))));
+            }
+            leaf = RecordComponents.of(type).component(segments[i]);
+            if (i < segments.length - 1) {
+                parent = i == 0 ? leaf.getter() : MethodHandles.filterReturnValue(parent, nullSafe(leaf.getter()));
+                type = leaf.type();
+            }
+        }
+        var accessor = segments.length == 1
+                ? leaf.getter()
+                : MethodHandles.filterReturnValue(parent, nullSafe(leaf.getter()));
+        return new CompiledPath(parent, leaf, accessor);
+    }
+
+    private static MethodHandle nullSafe(MethodHandle getter) {
+        return MethodHandles.guardWithTest(IS_NULL, NULL_RESULT, getter);
+    }
+
+    private static Comparator<?> createComparator(Class<?> recordClass, List<SortKey> keys) {
+        var comparators = keys.stream()
+                .map(k -> keyComparator(compile(recordClass, k.path()), k))
+                .toArray(KeyComparator[]::new);
+        return (a, b) -> {
+            try {
+                for (var comparator : comparators) {
+                    int result = comparator.compare(a, b);
+                    if (result != 0) {
+                        return result;
+                    }
+                }
+                return 0;
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalArgumentException(
+                        "Cannot compare records of type %s".formatted(recordClass.getName()), ex);
+            }
+        };
+    }
+
+    private static KeyComparator keyComparator(CompiledPath path, SortKey key) {
+        var leaf = path.leaf();
+        KeyComparator values;
+        MethodHandle nullable;
+        if (leaf.type().isPrimitive()) {
+            values = primitiveComparator(leaf);
+            nullable = path.parent();
+        } else if (Comparable.class.isAssignableFrom(leaf.type())) {
+            values = RecordPaths::compareComparables;
+            nullable = path.accessor();
+        } else {
+            throw new IllegalArgumentException("Cannot sort by %s of type %s, it is not comparable"
+                    .formatted(key.path(), leaf.type().getName()));
+        }
+        var nullsFirst = key.nulls() == Nulls.FIRST;
+        var descending = key.descending();
+        return (a, b) -> {
+            Object na = nullable.invokeExact(a);
+            Object nb = nullable.invokeExact(b);
+            if (na == null || nb == null) {
+                return na == nb ? 0 : (na == null) == nullsFirst ? -1 : 1;
+            }
+            int result = values.compare(na, nb);
+            return descending ? -result : result;
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareComparables(Object a, Object b) {
+        return Integer.signum(((Comparable) a).compareTo(b));
+    }
+
+    private static KeyComparator primitiveComparator(RecordComponents.Component leaf) {
+        var type = leaf.type();
+        var getter = leaf.getter(type);
+        if (type == int.class) {
+            return (a, b) -> Integer.compare((int) getter.invokeExact(a), (int) getter.invokeExact(b));
+        } else if (type == long.class) {
+            return (a, b) -> Long.compare((long) getter.invokeExact(a), (long) getter.invokeExact(b));
+        } else if (type == double.class) {
+            return (a, b) -> Double.compare((double) getter.invokeExact(a), (double) getter.invokeExact(b));
+        } else if (type == float.class) {
+            return (a, b) -> Float.compare((float) getter.invokeExact(a), (float) getter.invokeExact(b));
+        } else if (type == boolean.class) {
+            return (a, b) -> Boolean.compare((boolean) getter.invokeExact(a), (boolean) getter.invokeExact(b));
+        } else if (type == short.class) {
+            return (a, b) -> Short.compare((short) getter.invokeExact(a), (short) getter.invokeExact(b));
+        } else if (type == char.class) {
+            return (a, b) -> Character.compare((char) getter.invokeExact(a), (char) getter.invokeExact(b));
+        }
+        return (a, b) -> Byte.compare((byte) getter.invokeExact(a), (byte) getter.invokeExact(b));
+    }
+}
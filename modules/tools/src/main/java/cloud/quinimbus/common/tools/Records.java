@@ -1,8 +1,10 @@
 package cloud.quinimbus.common.tools;
 
-import java.lang.reflect.InvocationTargetException;
-import java.util.Locale;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 public class Records {
 
@@ -10,32 +12,124 @@ public class Records {
         if (!Record.class.isAssignableFrom(recordClass)) {
             throw new IllegalArgumentException("%s is not a record class".formatted(recordClass.getSimpleName()));
         }
-        return idFromClassName(recordClass.getSimpleName());
+        return NameCache.typeNames(recordClass).id();
     }
 
     public static String idFromRecordClass(Class<? extends Record> recordClass) {
-        return idFromClassName(recordClass.getSimpleName());
+        return NameCache.typeNames(recordClass).id();
+    }
+
+    public static String pluralIdFromRecordClass(Class<? extends Record> recordClass) {
+        return NameCache.typeNames(recordClass).pluralId();
     }
 
     public static String idFromType(NamedType type) {
-        return idFromClassName(type.getSimpleName());
+        return NameCache.idFromSimpleName(type.getSimpleName());
     }
 
+    /// Returns a getter for the component `field` of the record class. If the record class has no such component, the
+    /// public no-arg method `field` is read instead, so derived values computed by the record can be read as well.
+    /// The accessor is resolved once when the getter is created, applying the getter does not use reflection.
+    ///
+    /// @param <T> the record type
+    /// @param <V> the component type
+    /// @param recordClass the record class
+    /// @param field the component or method name
+    /// @return the getter
+    /// @throws IllegalArgumentException if the record class has neither a component nor a public no-arg method with
+    ///   this name
     public static <T extends Record, V> Function<T, V> fieldValueGetter(Class<T> recordClass, String field) {
+        var getter = RecordComponents.of(recordClass).getter(field);
+        return r -> {
+            try {
+                Object value = getter.invokeExact((Object) r);
+                return (V) value;
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw RecordComponents.readFailure(recordClass, field, ex);
+            }
+        };
+    }
+
+    /// Returns a getter for an `int` component (or a component convertible to `int`) that does not box the value.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @param field the component name
+    /// @return the getter
+    /// @throws IllegalArgumentException if there is no such component or it cannot be read as `int`
+    public static <T extends Record> ToIntFunction<T> intFieldValueGetter(Class<T> recordClass, String field) {
+        var getter = RecordComponents.of(recordClass).component(field).getter(int.class);
+        return r -> {
+            try {
+                return (int) getter.invokeExact((Object) r);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw RecordComponents.readFailure(recordClass, field, ex);
+            }
+        };
+    }
+
+    /// Returns a getter for a `long` component (or a component convertible to `long`) that does not box the value.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @param field the component name
+    /// @return the getter
+    /// @throws IllegalArgumentException if there is no such component or it cannot be read as `long`
+    public static <T extends Record> ToLongFunction<T> longFieldValueGetter(Class<T> recordClass, String field) {
+        var getter = RecordComponents.of(recordClass).component(field).getter(long.class);
+        return r -> {
+            try {
+                return (long) getter.invokeExact((Object) r);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw RecordComponents.readFailure(recordClass, field, ex);
+            }
+        };
+    }
+
+    /// Returns a getter for a `double` component (or a component convertible to `double`) that does not box the
+    /// value.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @param field the component name
+    /// @return the getter
+    /// @throws IllegalArgumentException if there is no such component or it cannot be read as `double`
+    public static <T extends Record> ToDoubleFunction<T> doubleFieldValueGetter(Class<T> recordClass, String field) {
+        var getter = RecordComponents.of(recordClass).component(field).getter(double.class);
         return r -> {
             try {
-                return (V) recordClass.getMethod(field).invoke(r);
-            } catch (NoSuchMethodException
-                    | SecurityException
-                    | IllegalAccessException
-                    | InvocationTargetException ex) {
-                throw new IllegalArgumentException(
-                        "Cannot read field %s on record of type %s".formatted(field, recordClass.getName()), ex);
+                return (double) getter.invokeExact((Object) r);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw RecordComponents.readFailure(recordClass, field, ex);
             }
         };
     }
 
-    private static String idFromClassName(String name) {
-        return name.substring(0, 1).toLowerCase(Locale.US) + name.substring(1);
+    /// Returns a predicate reading a `boolean` component (or a `Boolean` component) without boxing the value.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @param field the component name
+    /// @return the predicate returning the component value
+    /// @throws IllegalArgumentException if there is no such component or it cannot be read as `boolean`
+    public static <T extends Record> Predicate<T> booleanFieldValueGetter(Class<T> recordClass, String field) {
+        var getter = RecordComponents.of(recordClass).component(field).getter(boolean.class);
+        return r -> {
+            try {
+                return (boolean) getter.invokeExact((Object) r);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw RecordComponents.readFailure(recordClass, field, ex);
+            }
+        };
     }
 }
@@ -0,0 +1,23 @@
+package cloud.quinimbus.common.tools;
+
+import java.util.Map;
+import java.util.Set;
+
+/// Loads the entities referenced by components annotated with
+/// [cloud.quinimbus.common.annotations.modelling.References] in bulk, used by [ReferenceResolver].
+///
+/// Implementations are discovered via the [java.util.ServiceLoader] and must be annotated with
+/// [cloud.quinimbus.common.annotations.Provider], aliases are not supported. Without an explicit id the implementation
+/// with the highest priority is used.
+///
+/// @since 0.2
+public interface ReferenceLoader {
+
+    /// Loads all entities of the type with the given ids.
+    ///
+    /// @param <R> the entity type
+    /// @param type the entity type, as declared in `@References`
+    /// @param ids the ids to load, never empty and without duplicates
+    /// @return the loaded entities by id, ids without an entity are missing in the map
+    <R> Map<Object, R> loadAll(Class<R> type, Set<Object> ids);
+}
@@ -0,0 +1,236 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.modelling.References;
+import cloud.quinimbus.tools.function.LazySingletonSupplier;
+import cloud.quinimbus.tools.lang.TypeRef;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SequencedMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// Resolves the entities referenced by record components annotated with [References] in batches, instead of one
+/// lookup per record.
+///
+/// [#prefetch(Class, Collection)] collects the referenced ids of all records, removes duplicates and ids already
+/// resolved, and loads the remaining ids with one [ReferenceLoader#loadAll(Class, Set)] call per referenced type and
+/// batch. The resolved entities, including ids without an entity, are kept in a cache for the lifetime of the resolver,
+/// so a resolver is meant to be used for a single request or unit of work.
+///
+/// A reference component may either hold a single id or a [Collection] of ids.
+///
+/// @since 0.2
+public final class ReferenceResolver {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final ClassValue<List<ReferenceComponent>> REFERENCE_COMPONENTS = new ClassValue<>() {
+        @Override
+        protected List<ReferenceComponent> computeValue(Class<?> type) {
+            var references = RecordComponents.of(type).annotatedWith(References.class);
+            var descriptor = RecordDescriptor.of(type.asSubclass(Record.class));
+            return references.stream()
+                    .map(c -> new ReferenceComponent(c, descriptor.components().get(c.index()).references()))
+                    .toList();
+        }
+    };
+
+    private record ReferenceComponent(RecordComponents.Component component, Class<?> target) {}
+
+    private final ReferenceLoader loader;
+
+    private final int batchSize;
+
+    private final Map<Class<?>, Map<Object, Optional<Object>>> cache = new ConcurrentHashMap<>();
+
+    private ReferenceResolver(ReferenceLoader loader, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive, but is %d".formatted(batchSize));
+        }
+        this.loader = Objects.requireNonNull(loader);
+        this.batchSize = batchSize;
+    }
+
+    /// Creates a resolver using the [ReferenceLoader] implementation with the highest priority. The implementations are
+    /// discovered once with the class loader of `ReferenceLoader`, all resolvers created by this method and by
+    /// [#create(String)] share the instance of an implementation.
+    ///
+    /// @return the resolver
+    /// @throws IllegalStateException if there is no `ReferenceLoader` implementation
+    public static ReferenceResolver create() {
+        var loaders = loaders();
+        if (loaders.isEmpty()) {
+            throw new IllegalStateException("Cannot find any ReferenceLoader implementation");
+        }
+        return new ReferenceResolver(loaders.firstEntry().getValue().get(), DEFAULT_BATCH_SIZE);
+    }
+
+    /// Creates a resolver using the [ReferenceLoader] implementation with the given provider id.
+    ///
+    /// @param loaderId the id of the implementation
+    /// @return the resolver
+    /// @throws IllegalStateException if there is no `ReferenceLoader` implementation with this id
+    public static ReferenceResolver create(String loaderId) {
+        var loaders = loaders();
+        var loader = loaders.get(loaderId);
+        if (loader == null) {
+            throw new IllegalStateException("Cannot find a ReferenceLoader implementation with the id %s, known are %s"
+                    .formatted(loaderId, loaders.keySet()));
+        }
+        return new ReferenceResolver(loader.get(), DEFAULT_BATCH_SIZE);
+    }
+
+    /// Creates a resolver using the given loader.
+    ///
+    /// @param loader the loader
+    /// @return the resolver
+    public static ReferenceResolver create(ReferenceLoader loader) {
+        return new ReferenceResolver(loader, DEFAULT_BATCH_SIZE);
+    }
+
+    /// Returns a resolver with the given batch size, sharing the loader but not the cache with this one.
+    ///
+    /// @param batchSize the maximum number of ids loaded by one call to the loader
+    /// @return the new resolver
+    public ReferenceResolver withBatchSize(int batchSize) {
+        return new ReferenceResolver(this.loader, batchSize);
+    }
+
+    /// Loads all entities referenced by the records that are not resolved yet.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @param records the records
+    public <T extends Record> void prefetch(Class<T> recordClass, Collection<? extends T> records) {
+        var references = REFERENCE_COMPONENTS.get(recordClass);
+        if (references.isEmpty() || records.isEmpty()) {
+            return;
+        }
+        var idsByType = new LinkedHashMap<Class<?>, Set<Object>>();
+        for (var record : records) {
+            for (var reference : references) {
+                var cached = this.cache.get(reference.target());
+                for (var id : ids(record, reference.component())) {
+                    if (cached == null || !cached.containsKey(id)) {
+                        idsByType
+                                .computeIfAbsent(reference.target(), _ -> new LinkedHashSet<>())
+                                .add(id);
+                    }
+                }
+            }
+        }
+        idsByType.forEach(this::load);
+    }
+
+    /// Returns the entity referenced by a component holding a single id. Ids not resolved by
+    /// [#prefetch(Class, Collection)] are loaded individually.
+    ///
+    /// @param <R> the referenced type
+    /// @param record the record
+    /// @param field the reference component
+    /// @return the referenced entity, empty if the component is `null` or no entity exists for the id
+    /// @throws IllegalArgumentException if the component is not annotated with `@References`
+    public <R> Optional<R> referenced(Record record, String field) {
+        var reference = referenceComponent(record.getClass(), field);
+        var ids = ids(record, reference.component());
+        return ids.isEmpty() ? Optional.empty() : (Optional<R>) this.resolve(reference.target(), ids.getFirst());
+    }
+
+    /// Returns the entities referenced by a component holding a collection of ids, in the order of the ids. Ids
+    /// without an entity are skipped.
+    ///
+    /// @param <R> the referenced type
+    /// @param record the record
+    /// @param field the reference component
+    /// @return the referenced entities
+    /// @throws IllegalArgumentException if the component is not annotated with `@References`
+    public <R> List<R> referencedAll(Record record, String field) {
+        var reference = referenceComponent(record.getClass(), field);
+        var ids = ids(record, reference.component());
+        var missing = new LinkedHashSet<Object>();
+        var cached = this.cache.get(reference.target());
+        ids.stream().filter(id -> cached == null || !cached.containsKey(id)).forEach(missing::add);
+        if (!missing.isEmpty()) {
+            this.load(reference.target(), missing);
+        }
+        return ids.stream()
+                .map(id -> this.resolve(reference.target(), id))
+                .flatMap(Optional::stream)
+                .map(r -> (R) r)
+                .toList();
+    }
+
+    /// Returns the entity of the type with the id, from the cache or loaded individually.
+    ///
+    /// @param <R> the entity type
+    /// @param type the entity type
+    /// @param id the id
+    /// @return the entity, empty if no entity exists for the id
+    public <R> Optional<R> resolve(Class<R> type, Object id) {
+        var cached = this.cache.get(type);
+        if (cached == null || !cached.containsKey(id)) {
+            this.load(type, Set.of(id));
+            cached = this.cache.get(type);
+        }
+        return (Optional<R>) cached.get(id);
+    }
+
+    private void load(Class<?> type, Set<Object> ids) {
+        var cached = this.cache.computeIfAbsent(type, _ -> new ConcurrentHashMap<>());
+        var batch = new ArrayList<Object>(Math.min(ids.size(), this.batchSize));
+        for (var id : ids) {
+            batch.add(id);
+            if (batch.size() == this.batchSize) {
+                this.loadBatch(type, batch, cached);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            this.loadBatch(type, batch, cached);
+        }
+    }
+
+    private void loadBatch(Class<?> type, List<Object> batch, Map<Object, Optional<Object>> cached) {
+        Map<Object, ?> loaded = this.loader.loadAll(type, new LinkedHashSet<>(batch));
+        for (var id : batch) {
+            cached.put(id, Optional.ofNullable(loaded.get(id)));
+        }
+    }
+
+    private static ReferenceComponent referenceComponent(Class<?> recordClass, String field) {
+        return REFERENCE_COMPONENTS.get(recordClass).stream()
+                .filter(r -> r.component().name().equals(field))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Field %s of %s is not annotated with @References"
+                        .formatted(field, recordClass.getName())));
+    }
+
+    private static List<Object> ids(Object record, RecordComponents.Component component) {
+        Object value;
+        try {
+            value = component.getter().invokeExact(record);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw RecordComponents.readFailure(record.getClass(), component.name(), ex);
+        }
+        if (value == null) {
+            return List.of();
+        }
+        if (value instanceof Collection<?> values) {
+            return values.stream().filter(Objects::nonNull).map(v -> (Object) v).toList();
+        }
+        return List.of(value);
+    }
+
+    private static SequencedMap<String, LazySingletonSupplier<ReferenceLoader>> loaders() {
+        return ProviderLoader.loadCachedProviders(
+                TypeRef.of(ReferenceLoader.class), ProviderIndex.classLoaderOf(ReferenceLoader.class), false);
+    }
+}
@@ -0,0 +1,177 @@
+package cloud.quinimbus.common.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// The roles of a principal as a bitset, to be checked against the [AccessTables] without comparing role names.
+///
+/// The role names declared in the access tables are interned to bit positions once per JVM, so the intern table is
+/// bounded by the roles the loaded record types declare. Other roles of a principal never get a bit, they are kept by
+/// name in the role set. The intern table has a version that changes whenever a role is interned; a role set resolves
+/// its roles without a bit again only if the version changed since it last did, e.g. because an access table declaring
+/// one of them was loaded after the role set was created. Checks against the access tables are otherwise bitwise
+/// operations only. A role set should be created once per principal (e.g. when authenticating) and reused for all
+/// checks.
+///
+/// @since 0.2
+public final class RoleSet {
+
+    private static final ConcurrentMap<String, Integer> BITS = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger NEXT_BIT = new AtomicInteger();
+
+    /// Changed after a role was added to [#BITS].
+    private static final AtomicInteger VERSION = new AtomicInteger();
+
+    private static final String[] NO_ROLES = new String[0];
+
+    private static final RoleSet ANONYMOUS = new RoleSet(false, new Roles(new long[0], NO_ROLES, 0));
+
+    /// The roles of a role set resolved against the intern table.
+    ///
+    /// @param words the bits of the interned roles
+    /// @param uninterned the roles without a bit
+    /// @param version the version of the intern table the roles were resolved at
+    private record Roles(long[] words, String[] uninterned, int version) {}
+
+    private final boolean authenticated;
+
+    private volatile Roles roles;
+
+    private RoleSet(boolean authenticated, Roles roles) {
+        this.authenticated = authenticated;
+        this.roles = roles;
+    }
+
+    /// Returns the role set of an anonymous principal, which has no roles.
+    ///
+    /// @return the role set
+    public static RoleSet anonymous() {
+        return ANONYMOUS;
+    }
+
+    /// Creates the role set of an authenticated principal.
+    ///
+    /// @param roles the names of the roles
+    /// @return the role set
+    public static RoleSet of(Collection<String> roles) {
+        return new RoleSet(true, resolve(new long[0], roles));
+    }
+
+    /// Creates the role set of an authenticated principal.
+    ///
+    /// @param roles the names of the roles
+    /// @return the role set
+    public static RoleSet of(String... roles) {
+        return of(List.of(roles));
+    }
+
+    /// Creates the role set of roles declared in an access table, interning their names.
+    ///
+    /// @param roles the names of the roles
+    /// @return the role set
+    static RoleSet declared(Collection<String> roles) {
+        var words = new long[0];
+        for (var role : roles) {
+            var bit = BITS.get(role);
+            if (bit == null) {
+                bit = BITS.computeIfAbsent(role, _ -> NEXT_BIT.getAndIncrement());
+                VERSION.incrementAndGet();
+            }
+            words = set(words, bit);
+        }
+        return new RoleSet(true, new Roles(words, NO_ROLES, VERSION.get()));
+    }
+
+    /// @return the number of interned role names
+    static int internedRoles() {
+        return BITS.size();
+    }
+
+    /// Returns whether the principal is authenticated.
+    ///
+    /// @return `false` for [#anonymous()], otherwise `true`
+    public boolean authenticated() {
+        return this.authenticated;
+    }
+
+    /// Returns whether the role set contains the role.
+    ///
+    /// @param role the name of the role
+    /// @return whether the role is contained
+    public boolean contains(String role) {
+        var roles = this.resolved();
+        var bit = BITS.get(role);
+        if (bit != null && bit >>> 6 < roles.words().length && (roles.words()[bit >>> 6] & 1L << bit) != 0) {
+            return true;
+        }
+        for (var uninterned : roles.uninterned()) {
+            if (uninterned.equals(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /// Returns whether both role sets have at least one role in common.
+    ///
+    /// @param other the other role set
+    /// @return whether the role sets intersect
+    public boolean intersects(RoleSet other) {
+        var a = this.resolved();
+        var b = other.resolved();
+        for (int i = 0, n = Math.min(a.words().length, b.words().length); i < n; i++) {
+            if ((a.words()[i] & b.words()[i]) != 0) {
+                return true;
+            }
+        }
+        // roles without a bit can only be shared with another principal, the roles of access tables are interned
+        for (var role : a.uninterned()) {
+            for (var otherRole : b.uninterned()) {
+                if (role.equals(otherRole)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /// @return the roles, with the roles without a bit resolved again if roles were interned since they last were
+    private Roles resolved() {
+        var roles = this.roles;
+        if (roles.uninterned().length == 0 || roles.version() == VERSION.get()) {
+            return roles;
+        }
+        roles = resolve(roles.words(), Arrays.asList(roles.uninterned()));
+        this.roles = roles;
+        return roles;
+    }
+
+    private static Roles resolve(long[] words, Collection<String> roles) {
+        var version = VERSION.get();
+        var resolved = words.clone();
+        var uninterned = new ArrayList<String>(0);
+        for (var role : roles) {
+            var bit = BITS.get(role);
+            if (bit == null) {
+                uninterned.add(role);
+            } else {
+                resolved = set(resolved, bit);
+            }
+        }
+        return new Roles(resolved, uninterned.isEmpty() ? NO_ROLES : uninterned.toArray(String[]::new), version);
+    }
+
+    private static long[] set(long[] words, int bit) {
+        if (bit >>> 6 >= words.length) {
+            words = Arrays.copyOf(words, (bit >>> 6) + 1);
+        }
+        words[bit >>> 6] |= 1L << bit;
+        return words;
+    }
+}
@@ -0,0 +1,443 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.Id;
+import cloud.quinimbus.common.annotations.modelling.Searchable;
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/// An in-memory inverted index over the components of a record type annotated with [Searchable].
+///
+/// The values of the searchable components are split into lowercase tokens of letters and digits. A query is split
+/// the same way and matches a record if **every** query token matches one of the record's tokens: exactly
+/// ([#search(String)]), as a prefix ([#searchPrefix(String)]) or as a substring ([#searchSubstring(String)]).
+/// Substring queries use an n-gram index over the distinct tokens; query tokens shorter than the n-gram size cannot use
+/// it and scan the whole token dictionary instead. Postings are kept as sorted `int` arrays of internal document and
+/// term numbers, the numbers of removed records and tokens are reused.
+///
+/// Records are identified by a key, by default the value of the component annotated with [Id]. Adding a record with a
+/// key already present replaces the indexed record. The index is safe for concurrent use, queries run in parallel and
+/// are only blocked by modifications.
+///
+/// @param <T> the record type
+/// @since 0.2
+public final class SearchIndex<T extends Record> {
+
+    public static final int DEFAULT_NGRAM_SIZE = 3;
+
+    private final Class<T> recordClass;
+
+    private final List<RecordComponents.Component> searchableComponents;
+
+    private final Function<? super T, ?> keyExtractor;
+
+    private final int ngramSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, Term> terms = new TreeMap<>();
+
+    private final ArrayList<Term> termsById = new ArrayList<>();
+
+    private final HashMap<String, Postings> ngrams = new HashMap<>();
+
+    private final HashMap<Object, Integer> documentNumbers = new HashMap<>();
+
+    private final ArrayList<T> documents = new ArrayList<>();
+
+    private final ArrayList<String[]> documentTerms = new ArrayList<>();
+
+    private final Postings freeDocumentNumbers = new Postings();
+
+    private final Postings freeTermIds = new Postings();
+
+    private record Term(int id, String value, Postings documents) {}
+
+    private SearchIndex(Class<T> recordClass, Function<? super T, ?> keyExtractor, int ngramSize) {
+        if (ngramSize < 1) {
+            throw new IllegalArgumentException("The n-gram size must be positive, but is %d".formatted(ngramSize));
+        }
+        this.recordClass = recordClass;
+        this.searchableComponents = RecordComponents.of(recordClass).annotatedWith(Searchable.class);
+        if (this.searchableComponents.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "%s has no component annotated with @Searchable".formatted(recordClass.getName()));
+        }
+        this.keyExtractor = keyExtractor;
+        this.ngramSize = ngramSize;
+    }
+
+    /// Creates an index using the component annotated with [Id] as key.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @return the empty index
+    /// @throws IllegalArgumentException if the record class has no `@Searchable` or no `@Id` component
+    public static <T extends Record> SearchIndex<T> of(Class<T> recordClass) {
+        var idComponents = RecordComponents.of(recordClass).annotatedWith(Id.class);
+        if (idComponents.size() != 1) {
+            throw new IllegalArgumentException(
+                    "%s needs exactly one component annotated with @Id to be used as key, found %d"
+                            .formatted(recordClass.getName(), idComponents.size()));
+        }
+        return of(recordClass, Records.fieldValueGetter(recordClass, idComponents.getFirst().name()));
+    }
+
+    /// Creates an index using the given key extractor.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @param keyExtractor extracts the unique key of a record
+    /// @return the empty index
+    /// @throws IllegalArgumentException if the record class has no `@Searchable` component
+    public static <T extends Record> SearchIndex<T> of(Class<T> recordClass, Function<? super T, ?> keyExtractor) {
+        return of(recordClass, keyExtractor, DEFAULT_NGRAM_SIZE);
+    }
+
+    /// Creates an index using the given key extractor and n-gram size for substring queries.
+    ///
+    /// @param <T> the record type
+    /// @param recordClass the record class
+    /// @param keyExtractor extracts the unique key of a record
+    /// @param ngramSize the length of the n-grams, substring queries shorter than this scan the token dictionary
+    /// @return the empty index
+    /// @throws IllegalArgumentException if the record class has no `@Searchable` component
+    public static <T extends Record> SearchIndex<T> of(
+            Class<T> recordClass, Function<? super T, ?> keyExtractor, int ngramSize) {
+        return new SearchIndex<>(recordClass, keyExtractor, ngramSize);
+    }
+
+    public Class<T> recordClass() {
+        return this.recordClass;
+    }
+
+    /// @return the number of indexed records
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.documentNumbers.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /// Adds the record to the index, replacing an indexed record with the same key.
+    ///
+    /// @param record the record
+    public void put(T record) {
+        var key = Objects.requireNonNull(this.keyExtractor.apply(record), "The key of the record must not be null");
+        var recordTerms = this.tokenize(record);
+        this.lock.writeLock().lock();
+        try {
+            var documentNumber = this.documentNumbers.get(key);
+            if (documentNumber != null) {
+                this.unindex(documentNumber);
+                this.documents.set(documentNumber, record);
+            } else {
+                documentNumber = this.allocateDocumentNumber(record);
+                this.documentNumbers.put(key, documentNumber);
+            }
+            this.index(documentNumber, recordTerms);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /// Adds all records to the index like [#put(Record)].
+    ///
+    /// @param records the records
+    public void putAll(Collection<? extends T> records) {
+        records.forEach(this::put);
+    }
+
+    /// Removes the record with the given key from the index.
+    ///
+    /// @param key the key of the record
+    /// @return whether a record was removed
+    public boolean remove(Object key) {
+        this.lock.writeLock().lock();
+        try {
+            var documentNumber = this.documentNumbers.remove(key);
+            if (documentNumber == null) {
+                return false;
+            }
+            this.unindex(documentNumber);
+            this.documents.set(documentNumber, null);
+            this.freeDocumentNumbers.add(documentNumber);
+            return true;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /// Finds all records containing every token of the query.
+    ///
+    /// @param query the query
+    /// @return the matching records, empty if the query contains no token
+    public List<T> search(String query) {
+        return this.query(query, token -> {
+            var term = this.terms.get(token);
+            var result = new BitSet();
+            if (term != null) {
+                term.documents().addTo(result);
+            }
+            return result;
+        });
+    }
+
+    /// Finds all records containing, for every token of the query, a token starting with it.
+    ///
+    /// @param query the query
+    /// @return the matching records, empty if the query contains no token
+    public List<T> searchPrefix(String query) {
+        return this.query(query, token -> {
+            var result = new BitSet();
+            this.terms
+                    .subMap(token, true, token + Character.MAX_VALUE, false)
+                    .values()
+                    .forEach(t -> t.documents().addTo(result));
+            return result;
+        });
+    }
+
+    /// Finds all records containing, for every token of the query, a token containing it. Query tokens shorter than
+    /// the n-gram size are matched against every distinct token of the index, so their cost grows with the size of
+    /// the token dictionary.
+    ///
+    /// @param query the query
+    /// @return the matching records, empty if the query contains no token
+    public List<T> searchSubstring(String query) {
+        return this.query(query, token -> {
+            var result = new BitSet();
+            if (token.length() < this.ngramSize) {
+                this.terms.values().stream()
+                        .filter(t -> t.value().contains(token))
+                        .forEach(t -> t.documents().addTo(result));
+                return result;
+            }
+            BitSet candidates = null;
+            for (var gram : this.ngrams(token)) {
+                var postings = this.ngrams.get(gram);
+                if (postings == null) {
+                    return result;
+                }
+                var termIds = new BitSet();
+                postings.addTo(termIds);
+                if (candidates == null) {
+                    candidates = termIds;
+                } else {
+                    candidates.and(termIds);
+                }
+            }
+            candidates.stream()
+                    .mapToObj(this.termsById::get)
+                    .filter(t -> t != null && t.value().contains(token))
+                    .forEach(t -> t.documents().addTo(result));
+            return result;
+        });
+    }
+
+    private List<T> query(String query, Function<String, BitSet> tokenMatcher) {
+        var tokens = tokens(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        this.lock.readLock().lock();
+        try {
+            BitSet result = null;
+            for (var token : tokens) {
+                var matches = tokenMatcher.apply(token);
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.and(matches);
+                }
+                if (result.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return result.stream().mapToObj(this.documents::get).toList();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private int allocateDocumentNumber(T record) {
+        if (this.freeDocumentNumbers.size() > 0) {
+            var documentNumber = this.freeDocumentNumbers.removeLast();
+            this.documents.set(documentNumber, record);
+            return documentNumber;
+        }
+        this.documents.add(record);
+        this.documentTerms.add(new String[0]);
+        return this.documents.size() - 1;
+    }
+
+    private Term allocateTerm(String value) {
+        if (this.freeTermIds.size() > 0) {
+            var term = new Term(this.freeTermIds.removeLast(), value, new Postings());
+            this.termsById.set(term.id(), term);
+            return term;
+        }
+        var term = new Term(this.termsById.size(), value, new Postings());
+        this.termsById.add(term);
+        return term;
+    }
+
+    /// @return the number of term ids in use or free for reuse
+    int termIdCapacity() {
+        this.lock.readLock().lock();
+        try {
+            return this.termsById.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void index(int documentNumber, String[] recordTerms) {
+        this.documentTerms.set(documentNumber, recordTerms);
+        for (var value : recordTerms) {
+            var term = this.terms.get(value);
+            if (term == null) {
+                term = this.allocateTerm(value);
+                this.terms.put(value, term);
+                for (var gram : this.ngrams(value)) {
+                    this.ngrams.computeIfAbsent(gram, _ -> new Postings()).add(term.id());
+                }
+            }
+            term.documents().add(documentNumber);
+        }
+    }
+
+    private void unindex(int documentNumber) {
+        for (var value : this.documentTerms.get(documentNumber)) {
+            var term = this.terms.get(value);
+            term.documents().remove(documentNumber);
+            if (term.documents().size() == 0) {
+                this.terms.remove(value);
+                this.termsById.set(term.id(), null);
+                this.freeTermIds.add(term.id());
+                for (var gram : this.ngrams(value)) {
+                    var postings = this.ngrams.get(gram);
+                    postings.remove(term.id());
+                    if (postings.size() == 0) {
+                        this.ngrams.remove(gram);
+                    }
+                }
+            }
+        }
+        this.documentTerms.set(documentNumber, new String[0]);
+    }
+
+    private String[] tokenize(T record) {
+        var result = new TreeSet<String>();
+        for (var component : this.searchableComponents) {
+            Object value;
+            try {
+                value = component.getter().invokeExact((Object) record);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw RecordComponents.readFailure(this.recordClass, component.name(), ex);
+            }
+            if (value instanceof Collection<?> values) {
+                values.stream().filter(Objects::nonNull).forEach(v -> result.addAll(tokens(v.toString())));
+            } else if (value != null) {
+                result.addAll(tokens(value.toString()));
+            }
+        }
+        return result.toArray(String[]::new);
+    }
+
+    private List<String> ngrams(String term) {
+        if (term.length() < this.ngramSize) {
+            return List.of();
+        }
+        var result = new ArrayList<String>(term.length() - this.ngramSize + 1);
+        for (int i = 0; i + this.ngramSize <= term.length(); i++) {
+            result.add(term.substring(i, i + this.ngramSize));
+        }
+        return result;
+    }
+
+    static List<String> tokens(String text) {
+        var result = new ArrayList<String>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            var tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                result.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    /// A sorted set of `int` values backed by an array.
+    private static final class Postings {
+
+        private int[] values = new int[4];
+
+        private int size;
+
+        int size() {
+            return this.size;
+        }
+
+        void add(int value) {
+            if (this.size > 0 && this.values[this.size - 1] < value) {
+                this.ensureCapacity();
+                this.values[this.size++] = value;
+                return;
+            }
+            var index = Arrays.binarySearch(this.values, 0, this.size, value);
+            if (index >= 0) {
+                return;
+            }
+            var insertion = -index - 1;
+            this.ensureCapacity();
+            System.arraycopy(this.values, insertion, this.values, insertion + 1, this.size - insertion);
+            this.values[insertion] = value;
+            this.size++;
+        }
+
+        void remove(int value) {
+            var index = Arrays.binarySearch(this.values, 0, this.size, value);
+            if (index >= 0) {
+                System.arraycopy(this.values, index + 1, this.values, index, this.size - index - 1);
+                this.size--;
+                if (this.values.length > 16 && this.size < this.values.length / 4) {
+                    this.values = Arrays.copyOf(this.values, this.values.length / 2);
+                }
+            }
+        }
+
+        int removeLast() {
+            return this.values[--this.size];
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < this.size; i++) {
+                bits.set(this.values[i]);
+            }
+        }
+
+        private void ensureCapacity() {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.values.length * 2);
+            }
+        }
+    }
+}
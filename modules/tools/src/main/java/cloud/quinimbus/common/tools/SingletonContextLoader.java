@@ -1,28 +1,344 @@
 package cloud.quinimbus.common.tools;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+/// Loads context singletons through a [ServiceLoader], one instance per context type.
+///
+/// Each context type has its own holder stored in a [ClassValue], so creating a context never blocks lookups of other
+/// context types, and a context may load other contexts while it is created. Once a context is created, looking it up
+/// only reads the holder's field. A thread waiting for a context created by another thread is recorded in a wait-for
+/// graph, so contexts depending on each other while they are created concurrently, e.g. when they are prewarmed, fail
+/// with an [IllegalStateException] instead of blocking forever.
+///
+/// ## Scoped contexts
+/// Contexts that differ per tenant or request can be bound with a [ContextScope]. While a scope runs an operation,
+/// [#loadContext(Class, Function)] returns the instances bound in the scope and falls back to the global singletons for
+/// all other context types. Scopes are bound through a [ScopedValue], so they are inherited by structured subtasks and
+/// cost no per-thread memory, and resolving a scoped context only reads an array slot assigned once per context type.
 public class SingletonContextLoader {
 
-    private static final SingletonContextLoader instance = new SingletonContextLoader();
+    private static volatile ClassValue<ContextHolder<?>> holders = newHolders();
 
-    private final ConcurrentMap<Class, Object> contextInstances;
+    private static final ScopedValue<ContextScope> SCOPE = ScopedValue.newInstance();
 
-    public SingletonContextLoader() {
-        this.contextInstances = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_SLOT = new AtomicInteger();
+
+    private static final ClassValue<Integer> SLOTS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return NEXT_SLOT.getAndIncrement();
+        }
+    };
+
+    private record Initialization<T>(Class<T> type, Thread creator, CompletableFuture<T> future) {}
+
+    /// The initializations the threads are waiting for, the edges of the wait-for graph.
+    private static final ConcurrentMap<Thread, Initialization<?>> WAITING = new ConcurrentHashMap<>();
+
+    private static final class ContextHolder<T> {
+
+        private volatile T instance;
+
+        private final AtomicReference<Initialization<T>> initialization = new AtomicReference<>();
+
+        private T initialize(Class<T> cls, Function<Class<T>, ServiceLoader<T>> loader) {
+            while (true) {
+                var current = this.initialization.get();
+                if (current == null) {
+                    var own = new Initialization<>(cls, Thread.currentThread(), new CompletableFuture<T>());
+                    if (!this.initialization.compareAndSet(null, own)) {
+                        continue;
+                    }
+                    try {
+                        // the initialization is cleared once the instance is published, so the instance may have
+                        // been created since this thread read it
+                        var published = this.instance;
+                        var context = published != null ? published : createContext(cls, loader);
+                        this.instance = context;
+                        this.initialization.set(null);
+                        own.future().complete(context);
+                        return context;
+                    } catch (RuntimeException | Error ex) {
+                        this.initialization.set(null);
+                        own.future().completeExceptionally(ex);
+                        throw ex;
+                    }
+                }
+                if (current.creator() == Thread.currentThread()) {
+                    throw new IllegalStateException(
+                            "Cyclic dependency while creating the context %s".formatted(cls.getSimpleName()));
+                }
+                var thread = Thread.currentThread();
+                WAITING.put(thread, current);
+                try {
+                    var cycle = waitCycle(thread, current);
+                    if (cycle != null) {
+                        throw new IllegalStateException("Cyclic dependency while creating the context %s: %s"
+                                .formatted(cls.getSimpleName(), cycle));
+                    }
+                    return current.future().join();
+                } catch (CompletionException | CancellationException ex) {
+                    // the creating thread failed and reports its exception, try again in this thread
+                } finally {
+                    WAITING.remove(thread);
+                }
+            }
+        }
+
+        /// Follows the wait-for graph from the initialization `thread` waits for. Each thread records its edge before
+        /// following the graph, so of the threads closing a cycle at least the last one sees it.
+        ///
+        /// @return the context types of the cycle `thread` closes by waiting, or `null` if there is none
+        private static String waitCycle(Thread thread, Initialization<?> awaited) {
+            var path = new ArrayList<String>();
+            var visited = new ArrayList<Thread>();
+            for (var next = awaited; next != null; next = WAITING.get(next.creator())) {
+                path.add(next.type().getSimpleName());
+                if (next.creator() == thread) {
+                    return String.join(" -> ", path) + " -> " + path.getFirst();
+                }
+                if (visited.contains(next.creator())) {
+                    return null;
+                }
+                visited.add(next.creator());
+            }
+            return null;
+        }
+    }
+
+    /// The result of [#prewarm(Collection, Function, Duration)].
+    ///
+    /// @param durations the time it took to load each context, in the order the contexts were requested
+    public record PrewarmReport(Map<Class<?>, Duration> durations) {
+
+        /// @return the longest time it took to load a single context
+        public Duration slowest() {
+            return this.durations.values().stream().max(Duration::compareTo).orElse(Duration.ZERO);
+        }
+    }
+
+    /// An immutable set of context instances, bound for the duration of [#run(Runnable)] or [#call(Supplier)].
+    ///
+    /// A scope is typically created once per tenant and reused for all of its requests. Binding a scope replaces the
+    /// scope bound before, derive from [#current()] to keep its contexts.
+    public static final class ContextScope {
+
+        private static final ContextScope EMPTY = new ContextScope(new Object[0]);
+
+        /// The instances indexed by the slot of their context type.
+        private final Object[] instances;
+
+        private ContextScope(Object[] instances) {
+            this.instances = instances;
+        }
+
+        /// @return a scope without any context
+        public static ContextScope empty() {
+            return EMPTY;
+        }
+
+        /// @return the scope bound to the current thread or an empty scope
+        public static ContextScope current() {
+            return SCOPE.orElse(EMPTY);
+        }
+
+        /// Returns a scope with the contexts of this scope and `context` bound for `cls`, replacing an instance already
+        /// bound for `cls`.
+        ///
+        /// @param <T> the context type
+        /// @param cls the context type
+        /// @param context the context instance
+        /// @return the new scope
+        /// @throws IllegalArgumentException if `context` is no instance of `cls`
+        public <T> ContextScope with(Class<T> cls, T context) {
+            Objects.requireNonNull(context);
+            if (!cls.isInstance(context)) {
+                throw new IllegalArgumentException("%s is no instance of the context %s"
+                        .formatted(context.getClass().getName(), cls.getName()));
+            }
+            int slot = SLOTS.get(cls);
+            var instances = Arrays.copyOf(this.instances, Math.max(this.instances.length, slot + 1));
+            instances[slot] = context;
+            return new ContextScope(instances);
+        }
+
+        /// @param <T> the context type
+        /// @param cls the context type
+        /// @return the instance bound for `cls` in this scope, without falling back to the global singleton
+        public <T> Optional<T> context(Class<T> cls) {
+            return Optional.ofNullable(this.lookup(cls));
+        }
+
+        /// Runs the operation with this scope bound.
+        ///
+        /// @param op the operation
+        public void run(Runnable op) {
+            ScopedValue.where(SCOPE, this).run(op);
+        }
+
+        /// Calls the operation with this scope bound.
+        ///
+        /// @param <R> the result type
+        /// @param op the operation
+        /// @return the result of the operation
+        public <R> R call(Supplier<? extends R> op) {
+            return ScopedValue.where(SCOPE, this).call(op::get);
+        }
+
+        private <T> T lookup(Class<T> cls) {
+            var instances = this.instances;
+            if (instances.length == 0) {
+                return null;
+            }
+            int slot = SLOTS.get(cls);
+            return slot < instances.length ? (T) instances[slot] : null;
+        }
     }
 
+    public SingletonContextLoader() {}
+
+    /// Returns the context bound for `cls` in the current [ContextScope] or, if there is none, the global singleton,
+    /// which is created on first use.
+    ///
+    /// @param <T> the context type
+    /// @param cls the context type
+    /// @param loader the serviceloader to use
+    /// @return the context
+    /// @throws IllegalStateException if no implementation can be found or the context depends on itself while it is
+    ///   created, also if the cycle spans contexts created by different threads
     public static <T> T loadContext(Class<T> cls, Function<Class<T>, ServiceLoader<T>> loader) {
-        return (T) instance.contextInstances.computeIfAbsent(cls, c -> createContext(c, loader));
+        var scoped = SCOPE.orElse(ContextScope.EMPTY).lookup(cls);
+        if (scoped != null) {
+            return scoped;
+        }
+        var holder = (ContextHolder<T>) holders.get(cls);
+        var context = holder.instance;
+        if (context != null) {
+            return context;
+        }
+        return holder.initialize(cls, loader);
+    }
+
+    /// Forgets all loaded contexts, the next [#loadContext(Class, Function)] creates them again. This is intended for
+    /// tests, contexts that are currently created are not affected.
+    public static void reset() {
+        holders = newHolders();
+    }
+
+    /// Forgets the loaded context of the given type, the next [#loadContext(Class, Function)] creates it again. This is
+    /// intended for tests.
+    ///
+    /// @param cls the context type
+    public static void reset(Class<?> cls) {
+        holders.remove(cls);
+    }
+
+    /// Loads all given contexts concurrently, each on its own virtual thread, so the first request touching them does
+    /// not pay for their creation. Contexts that are already loaded are returned immediately.
+    ///
+    /// @param contextClasses the context types to load
+    /// @param loader the serviceloader to use
+    /// @param timeout the maximum time to wait for all contexts
+    /// @return the time it took to load each context
+    /// @throws IllegalStateException after all contexts were either loaded, failed or the timeout expired, if any
+    ///   context failed or did not finish in time, containing all failures. Contexts that did not finish in time
+    ///   continue loading in the background.
+    public static PrewarmReport prewarm(
+            Collection<Class<?>> contextClasses,
+            Function<Class<?>, ? extends ServiceLoader<?>> loader,
+            Duration timeout) {
+        var deadline = System.nanoTime() + timeout.toNanos();
+        var executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("context-prewarm-", 0).factory());
+        var futures = new LinkedHashMap<Class<?>, Future<Duration>>();
+        try {
+            for (var cls : contextClasses) {
+                futures.put(cls, executor.submit(() -> {
+                    var start = System.nanoTime();
+                    loadContext((Class) cls, (Function) loader);
+                    return Duration.ofNanos(System.nanoTime() - start);
+                }));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        var durations = new LinkedHashMap<Class<?>, Duration>();
+        var errorMessages = new ArrayList<String>();
+        var causes = new ArrayList<Throwable>();
+        for (var entry : futures.entrySet()) {
+            try {
+                durations.put(
+                        entry.getKey(),
+                        entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (ExecutionException ex) {
+                errorMessages.add("Cannot load context %s: %s"
+                        .formatted(entry.getKey().getName(), ex.getCause().getMessage()));
+                causes.add(ex.getCause());
+            } catch (TimeoutException ex) {
+                errorMessages.add("Context %s was not loaded within %s".formatted(entry.getKey().getName(), timeout));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while prewarming contexts", ex);
+            }
+        }
+        if (!errorMessages.isEmpty()) {
+            var exception = new IllegalStateException("Errors occurred while prewarming contexts:\n%s"
+                    .formatted(errorMessages.stream().collect(Collectors.joining("\n"))));
+            causes.forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return new PrewarmReport(Collections.unmodifiableMap(durations));
+    }
+
+    private static ClassValue<ContextHolder<?>> newHolders() {
+        return new ClassValue<>() {
+            @Override
+            protected ContextHolder<?> computeValue(Class<?> type) {
+                return new ContextHolder<>();
+            }
+        };
     }
 
     private static <T> T createContext(Class<T> cls, Function<Class<T>, ServiceLoader<T>> loader) {
-        return loader.apply(cls)
-                .findFirst()
-                .orElseThrow(() ->
-                        new IllegalStateException("Cannot find any %s implementation".formatted(cls.getSimpleName())));
+        var creation = new LoaderEvents.ContextCreation();
+        creation.begin();
+        var creationStart = LoaderMetrics.start();
+        try {
+            return loader.apply(cls)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Cannot find any %s implementation".formatted(cls.getSimpleName())));
+        } finally {
+            LoaderMetrics.record(LoaderMetrics.Operation.CONTEXT_CREATION, creationStart);
+            creation.end();
+            if (creation.shouldCommit()) {
+                creation.context = cls.getName();
+                creation.commit();
+            }
+        }
     }
 }
@@ -0,0 +1,223 @@
+package cloud.quinimbus.common.tools;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/// Generates time-ordered 64 bit ids without locking, backing the generator methods in [IDs].
+///
+/// An id is laid out as 42 bits of milliseconds since [#EPOCH_MILLIS], 10 bits of node id and 11 bits of sequence, the
+/// sign bit is always zero. The node id distinguishes the JVMs generating ids for the same data, it is configured by
+/// [#configureNodeId(int)] or read from the system property [#NODE_ID_PROPERTY]; generating ids without a node id
+/// fails instead of guessing one, as randomly chosen node ids of a few dozen JVMs are likely to collide.
+///
+/// The last timestamp and sequence are packed in one long that is advanced by compare-and-set, a batch reserves all
+/// remaining sequence numbers of a millisecond it needs with a single update. All ids of a JVM are strictly increasing.
+/// If the sequence is exhausted within one millisecond, i.e. after 2048 ids, the generator waits for the clock to
+/// reach the next millisecond, so the timestamp of an id never runs ahead of the clock. Ids are unique across all JVMs
+/// with distinct node ids.
+final class TimeOrderedIds {
+
+    /// 2024-01-01T00:00:00Z, the 42 bit timestamp lasts until the year 2163.
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    /// The system property holding the node id, an integer from 0 to 1023.
+    static final String NODE_ID_PROPERTY = "cloud.quinimbus.common.tools.nodeId";
+
+    private static final int SEQUENCE_BITS = 11;
+
+    private static final int NODE_BITS = 10;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    static final int NODE_MASK = (1 << NODE_BITS) - 1;
+
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + NODE_BITS;
+
+    private static final int UNSET = -1;
+
+    /// How long a generator with an exhausted sequence parks before it reads the clock again.
+    private static final long CLOCK_WAIT_NANOS = 50_000;
+
+    private static final AtomicLong STATE = new AtomicLong();
+
+    private static volatile int nodeId = UNSET;
+
+    private static final char[] BASE32_ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static final byte[] BASE32_VALUES = new byte[128];
+
+    static final int BASE32_LENGTH = 13;
+
+    static {
+        Arrays.fill(BASE32_VALUES, (byte) -1);
+        for (int i = 0; i < BASE32_ALPHABET.length; i++) {
+            BASE32_VALUES[BASE32_ALPHABET[i]] = (byte) i;
+            BASE32_VALUES[Character.toLowerCase(BASE32_ALPHABET[i])] = (byte) i;
+        }
+    }
+
+    private TimeOrderedIds() {}
+
+    /// @return the configured node id
+    /// @throws IllegalStateException if no node id is configured
+    static int nodeId() {
+        int node = nodeId;
+        return node != UNSET ? node : initNodeId();
+    }
+
+    private static synchronized int initNodeId() {
+        if (nodeId == UNSET) {
+            nodeId = nodeId(System.getProperty(NODE_ID_PROPERTY));
+        }
+        return nodeId;
+    }
+
+    /// Sets the node id unless it is already set, e.g. by the system property [#NODE_ID_PROPERTY].
+    ///
+    /// @param node the node id
+    /// @throws IllegalArgumentException if the node id is not from 0 to 1023
+    /// @throws IllegalStateException if a different node id is already set
+    static synchronized void configureNodeId(int node) {
+        if (node < 0 || node > NODE_MASK) {
+            throw new IllegalArgumentException(
+                    "The node id must be an integer from 0 to %d, but is %d".formatted(NODE_MASK, node));
+        }
+        if (nodeId == UNSET && System.getProperty(NODE_ID_PROPERTY) != null) {
+            initNodeId();
+        }
+        if (nodeId != UNSET && nodeId != node) {
+            throw new IllegalStateException("The node id is already set to %d".formatted(nodeId));
+        }
+        nodeId = node;
+    }
+
+    /// @param property the value of the system property [#NODE_ID_PROPERTY] or `null` if it is not set
+    /// @return the node id
+    /// @throws IllegalArgumentException if the property is no integer from 0 to 1023
+    /// @throws IllegalStateException if the property is not set
+    static int nodeId(String property) {
+        if (property == null) {
+            throw new IllegalStateException("No node id is configured, set the system property %s or call %s"
+                    .formatted(NODE_ID_PROPERTY, "IDs.configureNodeId(int) with a node id unique among the JVMs"));
+        }
+        try {
+            var node = Integer.parseInt(property.strip());
+            if (node >= 0 && node <= NODE_MASK) {
+                return node;
+            }
+        } catch (NumberFormatException ex) {
+            // reported below
+        }
+        throw new IllegalArgumentException("The node id %s in the system property %s must be an integer from 0 to %d"
+                .formatted(property, NODE_ID_PROPERTY, NODE_MASK));
+    }
+
+    static long next() {
+        long node = nodeId();
+        return id(reserve(1), node);
+    }
+
+    static void fill(long[] target, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, target.length);
+        long node = nodeId();
+        int end = offset + length;
+        int position = offset;
+        while (position < end) {
+            int count = (int) Math.min(end - position, SEQUENCE_MASK + 1);
+            long first = reserve(count);
+            int reserved = (int) Math.min(count, SEQUENCE_MASK + 1 - (first & SEQUENCE_MASK));
+            for (int i = 0; i < reserved; i++) {
+                target[position++] = id(first + i, node);
+            }
+        }
+    }
+
+    /// Reserves up to `count` consecutive sequence numbers within one millisecond. If the sequence of the last
+    /// millisecond is exhausted and the clock has not passed it yet, e.g. after the clock was set back, this parks
+    /// until it has.
+    ///
+    /// @return the packed state `timestamp << SEQUENCE_BITS | sequence` of the first reserved id, the number of
+    ///   reserved ids is `min(count, SEQUENCE_MASK + 1 - sequence)`
+    private static long reserve(int count) {
+        while (true) {
+            long current = STATE.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            long first;
+            if (now > lastTimestamp) {
+                first = now << SEQUENCE_BITS;
+            } else if ((current & SEQUENCE_MASK) == SEQUENCE_MASK) {
+                LockSupport.parkNanos(CLOCK_WAIT_NANOS);
+                continue;
+            } else {
+                first = current + 1;
+            }
+            long last = Math.min(first + count - 1, first | SEQUENCE_MASK);
+            if (STATE.compareAndSet(current, last)) {
+                return first;
+            }
+        }
+    }
+
+    private static long id(long state, long node) {
+        return (state >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT | node << SEQUENCE_BITS | (state & SEQUENCE_MASK);
+    }
+
+    static Instant timestamp(long id) {
+        return Instant.ofEpochMilli((id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS);
+    }
+
+    static int node(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & NODE_MASK;
+    }
+
+    static byte[] toBytes(long id) {
+        var bytes = new byte[Long.BYTES];
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            bytes[i] = (byte) id;
+            id >>>= 8;
+        }
+        return bytes;
+    }
+
+    static long fromBytes(byte[] bytes) {
+        if (bytes.length != Long.BYTES) {
+            throw new IllegalArgumentException(
+                    "Binary id must have %d bytes, found %d".formatted(Long.BYTES, bytes.length));
+        }
+        long id = 0;
+        for (byte b : bytes) {
+            id = id << 8 | (b & 0xFF);
+        }
+        return id;
+    }
+
+    static String toBase32(long id) {
+        var chars = new char[BASE32_LENGTH];
+        for (int i = BASE32_LENGTH - 1; i >= 0; i--) {
+            chars[i] = BASE32_ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    static long fromBase32(CharSequence encoded) {
+        if (encoded.length() != BASE32_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Encoded id %s must have %d characters".formatted(encoded, BASE32_LENGTH));
+        }
+        long id = 0;
+        for (int i = 0; i < BASE32_LENGTH; i++) {
+            char c = encoded.charAt(i);
+            int value = c < 128 ? BASE32_VALUES[c] : -1;
+            if (value < 0 || (i == 0 && value > 15)) {
+                throw new IllegalArgumentException("Invalid encoded id %s".formatted(encoded));
+            }
+            id = id << 5 | value;
+        }
+        return id;
+    }
+}
@@ -3,4 +3,7 @@ module cloud.quinimbus.common.tools {
 
     requires cloud.quinimbus.common.annotations;
     requires cloud.quinimbus.tools;
+    requires jdk.jfr;
+
+    uses cloud.quinimbus.common.tools.ReferenceLoader;
 }
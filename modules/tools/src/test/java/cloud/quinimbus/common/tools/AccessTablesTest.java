@@ -0,0 +1,69 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cloud.quinimbus.common.tools.AccessTables.Operation;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class AccessTablesTest {
+
+    @Test
+    public void testCrudOperations() {
+        var editor = RoleSet.of("editor");
+        var admin = RoleSet.of("admin", "editor");
+        var anonymous = RoleSet.anonymous();
+        assertTrue(AccessTables.isAllowed(MyTestRecord.class, Operation.READ, anonymous));
+        assertFalse(AccessTables.isAllowed(MyTestRecord.class, Operation.UPDATE, anonymous));
+        assertTrue(AccessTables.isAllowed(MyTestRecord.class, Operation.UPDATE, RoleSet.of()));
+        assertTrue(AccessTables.isAllowed(MyTestRecord.class, Operation.CREATE, editor));
+        assertFalse(AccessTables.isAllowed(MyTestRecord.class, Operation.DELETE, editor));
+        assertTrue(AccessTables.isAllowed(MyTestRecord.class, Operation.DELETE, admin));
+    }
+
+    @Test
+    public void testActions() {
+        assertTrue(AccessTables.isActionAllowed(MyTestRecord.class, "archive", RoleSet.of("admin")));
+        assertFalse(AccessTables.isActionAllowed(MyTestRecord.class, "archive", RoleSet.of("editor")));
+        assertTrue(AccessTables.isActionAllowed(MyTestRecord.class, "export", RoleSet.of("editor")));
+        assertFalse(AccessTables.isActionAllowed(MyTestRecord.class, "unknown", RoleSet.of("admin")));
+    }
+
+    @Test
+    public void testUndeclaredType() {
+        assertFalse(AccessTables.isAllowed(MyNumericTestRecord.class, Operation.READ, RoleSet.of("admin")));
+    }
+
+    @Test
+    public void testRoleSet() {
+        var roles = RoleSet.of("reader", "writer");
+        assertTrue(roles.contains("reader"));
+        assertFalse(roles.contains("never-interned-role"));
+        assertTrue(roles.intersects(RoleSet.of("writer")));
+        assertFalse(roles.intersects(RoleSet.of("owner")));
+        assertFalse(RoleSet.anonymous().authenticated());
+    }
+
+    @Test
+    public void testPrincipalRolesAreNotInterned() {
+        var interned = RoleSet.internedRoles();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(RoleSet.of("principal-role-" + i).contains("principal-role-" + i));
+        }
+        assertEquals(interned, RoleSet.internedRoles());
+    }
+
+    @Test
+    public void testRolesDeclaredAfterThePrincipal() {
+        var principal = RoleSet.of("late-role", "other-role");
+        var declared = RoleSet.declared(List.of("late-role"));
+        assertTrue(principal.intersects(declared));
+        assertTrue(declared.intersects(principal));
+        assertTrue(principal.contains("late-role"));
+        assertFalse(RoleSet.of("other-role").intersects(declared));
+        var declaredLater = RoleSet.declared(List.of("other-role"));
+        assertTrue(principal.intersects(declaredLater));
+        assertTrue(principal.contains("other-role"));
+        assertFalse(RoleSet.of("unrelated-role").intersects(declaredLater));
+    }
+}
@@ -0,0 +1,72 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cloud.quinimbus.common.annotations.business.Action;
+import cloud.quinimbus.common.annotations.business.RecordEntityInstanceContext;
+import cloud.quinimbus.common.annotations.business.RecordTypeContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class ActionDispatcherTest {
+
+    public static class MyTestActions {
+
+        private final List<String> archived = new ArrayList<>();
+
+        @Action("archive")
+        @RecordEntityInstanceContext(MyTestRecord.class)
+        public void archive(MyTestRecord record) {
+            this.archived.add(record.strField());
+        }
+
+        @Action("shout")
+        @RecordEntityInstanceContext(MyTestRecord.class)
+        public String shout(Record record) {
+            return ((MyTestRecord) record).strField().toUpperCase();
+        }
+
+        @Action("count")
+        @RecordTypeContext(MyTestRecord.class)
+        public static int count() {
+            return 42;
+        }
+    }
+
+    public static class MyMalformedActions {
+
+        @Action("broken")
+        @RecordTypeContext(MyTestRecord.class)
+        public void broken(MyTestRecord record) {}
+    }
+
+    @Test
+    public void testInvoke() {
+        var actions = new MyTestActions();
+        var dispatcher = ActionDispatcher.of(actions);
+        assertEquals(Set.of("archive", "shout", "count"), dispatcher.actions(MyTestRecord.class));
+        assertEquals("ABC", dispatcher.invoke(new MyTestRecord("abc"), "shout"));
+        assertNull(dispatcher.invoke(new MyTestRecord("abc"), "archive"));
+        assertEquals(List.of("abc"), actions.archived);
+        assertEquals(42, dispatcher.invoke(MyTestRecord.class, "count"));
+    }
+
+    @Test
+    public void testInvokeAll() {
+        var dispatcher = ActionDispatcher.of(new MyTestActions());
+        assertEquals(
+                List.of("A", "B"),
+                dispatcher.invokeAll(
+                        MyTestRecord.class, "shout", List.of(new MyTestRecord("a"), new MyTestRecord("b"))));
+    }
+
+    @Test
+    public void testUnknownAction() {
+        var dispatcher = ActionDispatcher.of(new MyTestActions());
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.invoke(new MyTestRecord("a"), "delete"));
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.invoke(MyTestRecord.class, "shout"));
+        assertThrows(IllegalArgumentException.class, () -> ActionDispatcher.of(new MyMalformedActions()));
+    }
+}
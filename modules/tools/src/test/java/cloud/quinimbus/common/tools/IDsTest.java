@@ -2,14 +2,27 @@ package cloud.quinimbus.common.tools;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 public class IDsTest {
 
+    @BeforeAll
+    public static void configureNodeId() {
+        IDs.configureNodeId(7);
+    }
+
     @Test
     public void testToPlural() {
         assertEquals("persons", IDs.toPlural("person"));
         assertEquals("entries", IDs.toPlural("entry"));
+        assertSame(IDs.toPlural("entry"), IDs.toPlural("entry"));
     }
 
     @Test
@@ -18,4 +31,77 @@ public class IDsTest {
         assertEquals("entry", IDs.toSingular("entries"));
         assertEquals("list", IDs.toSingular("list"));
     }
+
+    @Test
+    public void testNextId() {
+        var first = IDs.nextId();
+        var second = IDs.nextId();
+        assertTrue(first > 0);
+        assertTrue(second > first);
+        var age = Duration.between(IDs.timestampOf(second), Instant.now());
+        assertTrue(age.abs().toSeconds() < 5);
+    }
+
+    @Test
+    public void testNextIdsBatch() {
+        var ids = new long[20_000];
+        IDs.nextIds(ids);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+        }
+        assertFalse(IDs.timestampOf(ids[ids.length - 1]).isAfter(Instant.now()));
+        var encoded = new String[1000];
+        IDs.nextIds(encoded);
+        var sorted = encoded.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, encoded);
+        assertEquals(1000, Set.of(encoded).size());
+    }
+
+    @Test
+    public void testNextIdsBatchUsesFullSequence() {
+        var ids = new long[20_000];
+        var start = System.nanoTime();
+        IDs.nextIds(ids);
+        var elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        var distinctMillis = Arrays.stream(ids).mapToObj(IDs::timestampOf).distinct().count();
+        assertTrue(distinctMillis <= elapsedMillis + 2, distinctMillis + " ms for " + elapsedMillis + " ms elapsed");
+        assertTrue(distinctMillis >= 10);
+    }
+
+    @Test
+    public void testNextIdConcurrentlyUnique() {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 100_000).parallel().forEach(_ -> ids.add(IDs.nextId()));
+        assertEquals(100_000, ids.size());
+    }
+
+    @Test
+    public void testNodeId() {
+        assertEquals(7, IDs.nodeId());
+        assertEquals(7, IDs.nodeIdOf(IDs.nextId()));
+        IDs.configureNodeId(7);
+        assertThrows(IllegalStateException.class, () -> IDs.configureNodeId(8));
+        assertThrows(IllegalArgumentException.class, () -> IDs.configureNodeId(1024));
+        assertEquals(0, TimeOrderedIds.nodeId("0"));
+        assertEquals(1023, TimeOrderedIds.nodeId(" 1023 "));
+        var missing = assertThrows(IllegalStateException.class, () -> TimeOrderedIds.nodeId(null));
+        assertTrue(missing.getMessage().contains(TimeOrderedIds.NODE_ID_PROPERTY));
+        assertThrows(IllegalArgumentException.class, () -> TimeOrderedIds.nodeId("1024"));
+        assertThrows(IllegalArgumentException.class, () -> TimeOrderedIds.nodeId("-1"));
+        assertThrows(IllegalArgumentException.class, () -> TimeOrderedIds.nodeId("node"));
+    }
+
+    @Test
+    public void testEncodings() {
+        var id = IDs.nextId();
+        assertEquals(id, IDs.fromBytes(IDs.toBytes(id)));
+        assertEquals(13, IDs.toBase32(id).length());
+        assertEquals(id, IDs.fromBase32(IDs.toBase32(id)));
+        assertEquals(id, IDs.fromBase32(IDs.toBase32(id).toLowerCase()));
+        assertEquals("0000000000001", IDs.toBase32(1));
+        assertEquals(Long.MAX_VALUE, IDs.fromBase32(IDs.toBase32(Long.MAX_VALUE)));
+        assertThrows(IllegalArgumentException.class, () -> IDs.fromBase32("000000000000U"));
+        assertThrows(IllegalArgumentException.class, () -> IDs.fromBytes(new byte[4]));
+    }
 }
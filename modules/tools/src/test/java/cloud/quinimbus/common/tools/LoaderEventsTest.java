@@ -0,0 +1,96 @@
+package cloud.quinimbus.common.tools;
+
+import static cloud.quinimbus.common.tools.ProviderFixtures.serviceLoaderOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+import cloud.quinimbus.common.tools.ProviderLoaderTest.ImplA;
+import cloud.quinimbus.common.tools.ProviderLoaderTest.ImplB;
+import cloud.quinimbus.common.tools.ProviderLoaderTest.TestSpi;
+import cloud.quinimbus.tools.lang.TypeRef;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LoaderEventsTest {
+
+    private static final List<String> EVENTS = List.of(
+            "cloud.quinimbus.ProviderDiscovery",
+            "cloud.quinimbus.ProviderAnnotationRead",
+            "cloud.quinimbus.ProviderValidation",
+            "cloud.quinimbus.ProviderInstantiation",
+            "cloud.quinimbus.ContextCreation");
+
+    interface RecordedContext {}
+
+    @TempDir
+    Path tempDir;
+
+    /// Runs the operation while recording the loader events and returns the recorded events.
+    private List<RecordedEvent> record(Runnable op) throws IOException {
+        try (var recording = new Recording()) {
+            EVENTS.forEach(name -> recording.enable(name).withoutThreshold());
+            recording.start();
+            op.run();
+            recording.stop();
+            var file = Files.createTempFile(this.tempDir, "loader", ".jfr");
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> EVENTS.contains(e.getEventType().getName()))
+                    .toList();
+        }
+    }
+
+    private static List<RecordedEvent> eventsOf(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .toList();
+    }
+
+    @Test
+    public void testProviderLoadingIsRecorded() throws IOException {
+        var events = record(() -> {
+            var providers = ProviderLoader.loadProviders(
+                    TypeRef.of(TestSpi.class), c -> serviceLoaderOf(TestSpi.class, ImplA.class, ImplB.class), true);
+            providers.get("a").get();
+        });
+
+        var discovery = eventsOf(events, "cloud.quinimbus.ProviderDiscovery");
+        assertEquals(1, discovery.size());
+        assertEquals(TestSpi.class.getName(), discovery.getFirst().getString("spi"));
+        assertEquals(2, discovery.getFirst().getInt("providers"));
+        assertFalse(discovery.getFirst().getBoolean("indexed"));
+
+        assertEquals(
+                List.of(ImplA.class.getName(), ImplB.class.getName()),
+                eventsOf(events, "cloud.quinimbus.ProviderAnnotationRead").stream()
+                        .map(e -> e.getString("provider"))
+                        .sorted()
+                        .toList());
+
+        var validation = eventsOf(events, "cloud.quinimbus.ProviderValidation");
+        assertEquals(1, validation.size());
+        assertEquals(5, validation.getFirst().getInt("keys"));
+        assertEquals(0, validation.getFirst().getInt("errors"));
+
+        var instantiation = eventsOf(events, "cloud.quinimbus.ProviderInstantiation");
+        assertEquals(1, instantiation.size());
+        assertEquals(ImplA.class.getName(), instantiation.getFirst().getString("provider"));
+    }
+
+    @Test
+    public void testFailedContextCreationIsRecorded() throws IOException {
+        var events = record(() -> assertThrows(
+                IllegalStateException.class,
+                () -> SingletonContextLoader.loadContext(RecordedContext.class, c -> serviceLoaderOf(c))));
+
+        var creation = eventsOf(events, "cloud.quinimbus.ContextCreation");
+        assertEquals(1, creation.size());
+        assertEquals(RecordedContext.class.getName(), creation.getFirst().getString("context"));
+    }
+}
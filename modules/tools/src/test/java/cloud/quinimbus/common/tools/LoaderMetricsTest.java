@@ -0,0 +1,60 @@
+package cloud.quinimbus.common.tools;
+
+import static cloud.quinimbus.common.tools.ProviderFixtures.serviceLoaderOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoaderMetricsTest {
+
+    interface UnimplementedSpi {}
+
+    private boolean enabled;
+
+    @BeforeEach
+    public void enableMetrics() {
+        this.enabled = LoaderMetrics.isEnabled();
+        LoaderMetrics.setEnabled(true);
+    }
+
+    @AfterEach
+    public void restoreMetrics() {
+        LoaderMetrics.setEnabled(this.enabled);
+    }
+
+    @Test
+    public void testProviderDiscoveryIsMeasured() {
+        var before = LoaderMetrics.snapshot();
+        ProviderLoader.loadProviders(UnimplementedSpi.class, c -> serviceLoaderOf(c), true);
+        var after = LoaderMetrics.snapshot();
+
+        assertEquals(
+                before.get(LoaderMetrics.Operation.PROVIDER_DISCOVERY).count() + 1,
+                after.get(LoaderMetrics.Operation.PROVIDER_DISCOVERY).count());
+        assertEquals(
+                before.get(LoaderMetrics.Operation.PROVIDER_VALIDATION).count() + 1,
+                after.get(LoaderMetrics.Operation.PROVIDER_VALIDATION).count());
+        assertEquals(
+                before.get(LoaderMetrics.Operation.PROVIDER_ANNOTATION_READ).count(),
+                after.get(LoaderMetrics.Operation.PROVIDER_ANNOTATION_READ).count());
+    }
+
+    @Test
+    public void testDisabledMetricsAreNotUpdated() {
+        LoaderMetrics.setEnabled(false);
+        var before = LoaderMetrics.snapshot();
+        ProviderLoader.loadProviders(UnimplementedSpi.class, c -> serviceLoaderOf(c), true);
+
+        assertEquals(before, LoaderMetrics.snapshot());
+    }
+
+    @Test
+    public void testTimerMean() {
+        var timer = new LoaderMetrics.Timer(4, Duration.ofMillis(10), Duration.ofMillis(7));
+        assertEquals(Duration.ofNanos(2_500_000), timer.mean());
+        assertEquals(Duration.ZERO, new LoaderMetrics.Timer(0, Duration.ZERO, Duration.ZERO).mean());
+    }
+}
@@ -0,0 +1,20 @@
+package cloud.quinimbus.common.tools;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record MyCodecTestRecord(
+        int intField,
+        long longField,
+        double doubleField,
+        boolean booleanField,
+        char charField,
+        String strField,
+        Integer boxedField,
+        DayOfWeek enumField,
+        UUID uuidField,
+        Instant instantField,
+        MyTestRecord nested,
+        List<MyTestRecord> nestedList) {}
@@ -0,0 +1,14 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.Id;
+import cloud.quinimbus.common.annotations.modelling.Naming;
+import cloud.quinimbus.common.annotations.modelling.Owner;
+import cloud.quinimbus.common.annotations.modelling.References;
+import cloud.quinimbus.common.annotations.modelling.Searchable;
+
+@Owner(owningEntity = MySearchableTestRecord.class, field = "owner")
+public record MyDescribedTestRecord(
+        @Id("key") String key,
+        @Naming @Searchable String name,
+        @References(MySearchableTestRecord.class) String owner,
+        int count) {}
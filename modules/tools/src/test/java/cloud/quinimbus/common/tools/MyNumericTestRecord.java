@@ -0,0 +1,3 @@
+package cloud.quinimbus.common.tools;
+
+public record MyNumericTestRecord(int intField, long longField, double doubleField, boolean booleanField) {}
@@ -0,0 +1,7 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.Id;
+import cloud.quinimbus.common.annotations.modelling.Owner;
+
+@Owner(owningEntity = MyOwnedTestRecord.class, field = "parent")
+public record MyOwnedDetailTestRecord(@Id("id") String id, String parent) {}
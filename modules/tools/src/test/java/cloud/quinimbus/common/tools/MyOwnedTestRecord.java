@@ -0,0 +1,7 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.Id;
+import cloud.quinimbus.common.annotations.modelling.Owner;
+
+@Owner(owningEntity = MySearchableTestRecord.class, field = "owner")
+public record MyOwnedTestRecord(@Id("id") String id, String owner) {}
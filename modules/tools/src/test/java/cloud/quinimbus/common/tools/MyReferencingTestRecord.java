@@ -0,0 +1,9 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.modelling.References;
+import java.util.List;
+
+public record MyReferencingTestRecord(
+        String id,
+        @References(MyTestRecord.class) String owner,
+        @References(MyTestRecord.class) List<String> friends) {}
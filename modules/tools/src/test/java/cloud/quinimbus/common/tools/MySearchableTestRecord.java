@@ -0,0 +1,7 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.Id;
+import cloud.quinimbus.common.annotations.modelling.Searchable;
+import java.util.List;
+
+public record MySearchableTestRecord(@Id("id") String id, @Searchable String title, @Searchable List<String> tags) {}
@@ -0,0 +1,6 @@
+package cloud.quinimbus.common.tools;
+
+import cloud.quinimbus.common.annotations.Id;
+import cloud.quinimbus.common.annotations.modelling.Searchable;
+
+public record MyStaleDescribedTestRecord(@Id("key") String key, @Searchable String name) {}
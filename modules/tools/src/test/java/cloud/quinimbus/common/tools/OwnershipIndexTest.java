@@ -0,0 +1,72 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class OwnershipIndexTest {
+
+    private static OwnershipIndex index() {
+        var index = OwnershipIndex.of(MyOwnedTestRecord.class, MyOwnedDetailTestRecord.class);
+        index.putAll(List.of(
+                new MyOwnedTestRecord("a", "1"),
+                new MyOwnedTestRecord("b", "1"),
+                new MyOwnedTestRecord("c", "2"),
+                new MyOwnedDetailTestRecord("a1", "a"),
+                new MyOwnedDetailTestRecord("a2", "a"),
+                new MyOwnedDetailTestRecord("c1", "c")));
+        return index;
+    }
+
+    @Test
+    public void testChildren() {
+        var index = index();
+        assertEquals(Set.of("a", "b"), index.children(MyOwnedTestRecord.class, "1"));
+        assertEquals(Set.of("a1", "a2"), index.children(MyOwnedDetailTestRecord.class, "a"));
+        assertEquals(Set.of(), index.children(MyOwnedTestRecord.class, "3"));
+    }
+
+    @Test
+    public void testDescendants() {
+        var index = index();
+        assertEquals(
+                Map.of(MyOwnedTestRecord.class, Set.of("a", "b"), MyOwnedDetailTestRecord.class, Set.of("a1", "a2")),
+                index.descendants(MySearchableTestRecord.class, "1"));
+        assertEquals(Map.of(), index.descendants(MySearchableTestRecord.class, "3"));
+    }
+
+    @Test
+    public void testMoveAndRemove() {
+        var index = index();
+        index.put(new MyOwnedTestRecord("a", "2"));
+        assertEquals(Set.of("b"), index.children(MyOwnedTestRecord.class, "1"));
+        assertEquals(Set.of("a", "c"), index.children(MyOwnedTestRecord.class, "2"));
+
+        assertTrue(index.remove(MyOwnedTestRecord.class, "c"));
+        assertFalse(index.remove(MyOwnedTestRecord.class, "c"));
+        assertEquals(
+                Map.of(MyOwnedTestRecord.class, Set.of("a"), MyOwnedDetailTestRecord.class, Set.of("a1", "a2")),
+                index.descendants(MySearchableTestRecord.class, "2"));
+    }
+
+    @Test
+    public void testConcurrentPut() {
+        var index = OwnershipIndex.of(MyOwnedTestRecord.class);
+        IntStream.range(0, 10_000)
+                .parallel()
+                .forEach(i -> index.put(new MyOwnedTestRecord(Integer.toString(i), Integer.toString(i % 3))));
+        assertEquals(3334, index.children(MyOwnedTestRecord.class, "0").size());
+        assertEquals(3333, index.children(MyOwnedTestRecord.class, "2").size());
+    }
+
+    @Test
+    public void testInvalidTypes() {
+        assertThrows(IllegalArgumentException.class, () -> OwnershipIndex.of(MyTestRecord.class));
+        var index = index();
+        assertThrows(IllegalArgumentException.class, () -> index.put(new MyTestRecord("x")));
+    }
+}
@@ -0,0 +1,73 @@
+package cloud.quinimbus.common.tools;
+
+import static org.mockito.Mockito.*;
+
+import cloud.quinimbus.common.annotations.Provider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/// Writes build-time provider indexes and creates service loaders for test implementations, shared by the provider
+/// tests.
+final class ProviderFixtures {
+
+    private ProviderFixtures() {}
+
+    /// Writes the index of `spi` into `dir` like the processor would, taking the ids, aliases and priorities from the
+    /// `@Provider` annotations of the implementations.
+    static void writeIndex(Path dir, Class<?> spi, Class<?>... implementations) throws IOException {
+        var index = dir.resolve(ProviderIndex.INDEX_LOCATION + spi.getName());
+        Files.createDirectories(index.getParent());
+        Files.writeString(
+                index,
+                Stream.of(implementations)
+                        .map(c -> {
+                            var provider = c.getAnnotation(Provider.class);
+                            var columns = Stream.of(c.getName(), Integer.toString(provider.priority()), provider.id());
+                            return Stream.concat(columns, Stream.of(provider.alias()))
+                                    .collect(Collectors.joining("\t"));
+                        })
+                        .collect(Collectors.joining("\n", "", "\n")));
+    }
+
+    /// Writes the index of `spi` into `dir` and returns a class loader reading resources from `dir` and classes from
+    /// the test class loader.
+    static URLClassLoader indexedClassLoader(Path dir, Class<?> spi, Class<?>... implementations) throws IOException {
+        writeIndex(dir, spi, implementations);
+        return new URLClassLoader(new URL[] {dir.toUri().toURL()}, ProviderFixtures.class.getClassLoader());
+    }
+
+    /// Returns a mocked [ServiceLoader] streaming the implementations, each call of [ServiceLoader#stream()] returns a
+    /// new stream.
+    @SafeVarargs
+    static <S> ServiceLoader<S> serviceLoaderOf(Class<S> spi, Class<? extends S>... implementations) {
+        ServiceLoader<S> serviceLoader = mock(ServiceLoader.class);
+        when(serviceLoader.stream())
+                .thenAnswer(_ -> Stream.of(implementations).map(c -> providerOf(spi, c)));
+        return serviceLoader;
+    }
+
+    /// Returns a [ServiceLoader.Provider] instantiating `implementation` with its no-arg constructor.
+    static <S> ServiceLoader.Provider<S> providerOf(Class<S> spi, Class<? extends S> implementation) {
+        return new ServiceLoader.Provider<>() {
+            @Override
+            public Class<? extends S> type() {
+                return implementation;
+            }
+
+            @Override
+            public S get() {
+                try {
+                    return implementation.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        };
+    }
+}
@@ -4,12 +4,20 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import cloud.quinimbus.common.annotations.Provider;
-import java.lang.reflect.InvocationTargetException;
+import cloud.quinimbus.tools.lang.TypeRef;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -60,26 +68,32 @@ class ProviderLoaderTest {
         }
     }
 
-    private static ServiceLoader.Provider<TestSpi> providerOf(Class<? extends TestSpi> implClass) {
-        return new ServiceLoader.Provider<>() {
-            @Override
-            public Class<? extends TestSpi> type() {
-                return implClass;
-            }
+    @Provider(id = "failing")
+    static class ImplFailing implements TestSpi {
+        ImplFailing() {
+            throw new IllegalStateException("cannot create");
+        }
 
-            @Override
-            public TestSpi get() {
-                try {
-                    return implClass.getDeclaredConstructor().newInstance();
-                } catch (IllegalAccessException
-                        | IllegalArgumentException
-                        | InstantiationException
-                        | NoSuchMethodException
-                        | InvocationTargetException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        };
+        @Override
+        public String id() {
+            return "F";
+        }
+    }
+
+    interface OtherSpi {}
+
+    @Provider(id = "other", priority = 1)
+    static class ImplOther implements TestSpi, OtherSpi {
+        @Override
+        public String id() {
+            return "O";
+        }
+    }
+
+    static class OtherNoAnno implements OtherSpi {}
+
+    private static ServiceLoader.Provider<TestSpi> providerOf(Class<? extends TestSpi> implClass) {
+        return ProviderFixtures.providerOf(TestSpi.class, implClass);
     }
 
     private static ServiceLoader<TestSpi> serviceLoaderOf(Stream<ServiceLoader.Provider<TestSpi>> providers) {
@@ -152,6 +166,147 @@ class ProviderLoaderTest {
         });
     }
 
+    @Test
+    void providerIndex_suppliesMetadata_ofRegisteredServices(@TempDir Path dir) throws IOException {
+        var index = dir.resolve(ProviderIndex.INDEX_LOCATION + TestSpi.class.getName());
+        Files.createDirectories(index.getParent());
+        Files.writeString(index, "# test index\n%s\t10\tindexed\tidx\n".formatted(ImplA.class.getName()));
+        var sl = serviceLoaderOf(Stream.of(providerOf(ImplA.class), providerOf(ImplB.class)));
+        try (var classLoader = new URLClassLoader(new URL[] {dir.toUri().toURL()}, getClass().getClassLoader());
+                MockedStatic<ServiceLoader> mocked = mockStatic(ServiceLoader.class)) {
+            mocked.when(() -> ServiceLoader.load(TestSpi.class, classLoader)).thenReturn(sl);
+
+            var map = ProviderLoader.loadProviders(TypeRef.of(TestSpi.class), classLoader, true);
+
+            assertEquals(List.of("indexed", "idx", "b", "bb"), List.copyOf(map.keySet()));
+            assertEquals(ImplA.class, map.get("indexed").getType());
+            assertEquals("A", map.get("idx").get().id());
+            assertEquals("B", map.get("b").get().id());
+            verify(sl, times(1)).stream();
+        }
+    }
+
+    @Test
+    void providerIndex_entryWithoutService_isIgnored(@TempDir Path dir) throws IOException {
+        var sl = ProviderFixtures.serviceLoaderOf(TestSpi.class, ImplA.class);
+        try (var classLoader = ProviderFixtures.indexedClassLoader(dir, TestSpi.class, ImplA.class, ImplB.class);
+                MockedStatic<ServiceLoader> mocked = mockStatic(ServiceLoader.class)) {
+            mocked.when(() -> ServiceLoader.load(TestSpi.class, classLoader)).thenReturn(sl);
+
+            var map = ProviderLoader.loadProviders(TypeRef.of(TestSpi.class), classLoader, true);
+
+            assertEquals(List.of("a", "aa", "A"), List.copyOf(map.keySet()));
+        }
+    }
+
+    @Test
+    void providerIndex_isReadOncePerClassLoader(@TempDir Path dir) throws IOException {
+        try (var classLoader = ProviderFixtures.indexedClassLoader(dir, TestSpi.class, ImplA.class)) {
+            var first = ProviderIndex.read(TestSpi.class, classLoader);
+            ProviderFixtures.writeIndex(dir, TestSpi.class, ImplA.class, ImplB.class);
+
+            assertSame(first, ProviderIndex.read(TestSpi.class, classLoader));
+            assertEquals(List.of(ImplA.class.getName()), first.stream().map(ProviderIndex.Entry::className).toList());
+
+            ProviderLoader.invalidateCache(classLoader);
+
+            assertEquals(
+                    List.of(ImplA.class.getName(), ImplB.class.getName()),
+                    ProviderIndex.read(TestSpi.class, classLoader).stream()
+                            .map(ProviderIndex.Entry::className)
+                            .toList());
+        }
+    }
+
+    @Test
+    void cachedProviders_returnSameMap_untilInvalidated() throws IOException {
+        var sl = serviceLoaderOf(Stream.of(providerOf(ImplB.class)));
+        try (var classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+                MockedStatic<ServiceLoader> mocked = mockStatic(ServiceLoader.class)) {
+            mocked.when(() -> ServiceLoader.load(TestSpi.class, classLoader)).thenReturn(sl);
+
+            var first = ProviderLoader.loadCachedProviders(TypeRef.of(TestSpi.class), classLoader, true);
+            var instance = first.get("b").get();
+            System.gc();
+            var second = ProviderLoader.loadCachedProviders(TypeRef.of(TestSpi.class), classLoader, true);
+
+            assertSame(first, second);
+            assertSame(instance, second.get("b").get());
+            assertEquals(List.of("b", "bb"), List.copyOf(first.keySet()));
+            verify(sl, times(1)).stream();
+
+            ProviderLoader.invalidateCache(classLoader);
+            when(sl.stream()).thenReturn(Stream.of(providerOf(ImplA.class)));
+            var third = ProviderLoader.loadCachedProviders(TypeRef.of(TestSpi.class), classLoader, true);
+
+            assertNotSame(first, third);
+            assertEquals(ImplA.class, third.get("a").getType());
+        }
+    }
+
+    @Test
+    void instantiate_createsAllProviders_sharingInstancesBetweenAliases() {
+        var sl = serviceLoaderOf(Stream.of(providerOf(ImplA.class), providerOf(ImplB.class)));
+
+        withMockedServiceLoader(sl, () -> {
+            var map = ProviderLoader.loadProviders(TestSpi.class, ServiceLoader::load, true);
+            var instances = ProviderLoader.instantiate(map);
+
+            assertEquals(List.copyOf(map.keySet()), List.copyOf(instances.keySet()));
+            assertEquals("A", instances.get("a").id());
+            assertSame(instances.get("a"), instances.get("aa"));
+            assertEquals("B", instances.get("bb").id());
+
+            var subset = ProviderLoader.instantiate(map, List.of("b"));
+            assertEquals(List.of("b"), List.copyOf(subset.keySet()));
+        });
+    }
+
+    @Test
+    void instantiate_aggregatesFailures() {
+        var sl = serviceLoaderOf(Stream.of(providerOf(ImplA.class), providerOf(ImplFailing.class)));
+
+        withMockedServiceLoader(sl, () -> {
+            var map = ProviderLoader.loadProviders(TestSpi.class, ServiceLoader::load, true);
+            var ex = assertThrows(
+                    IllegalStateException.class, () -> ProviderLoader.instantiate(map, List.of("a", "failing", "x")));
+            assertTrue(ex.getMessage().contains(ImplFailing.class.getName()));
+            assertTrue(ex.getMessage().contains("x"));
+            assertEquals(1, ex.getSuppressed().length);
+        });
+    }
+
+    @Test
+    void loadAllProviders_discoversAllSpis_sharingImplementations() {
+        var testSpi = TypeRef.of(TestSpi.class);
+        var otherSpi = TypeRef.of(OtherSpi.class);
+        var loaders = Map.of(
+                TestSpi.class, ProviderFixtures.serviceLoaderOf(TestSpi.class, ImplA.class, ImplOther.class),
+                OtherSpi.class, ProviderFixtures.serviceLoaderOf(OtherSpi.class, ImplOther.class));
+
+        var providers = ProviderLoader.loadAllProviders(List.of(testSpi, otherSpi), loaders::get, true);
+
+        assertEquals(List.of(testSpi, otherSpi), List.copyOf(providers.keySet()));
+        assertEquals(List.of("a", "aa", "A", "other"), List.copyOf(providers.get(testSpi).keySet()));
+        assertEquals(List.of("other"), List.copyOf(providers.get(otherSpi).keySet()));
+        assertEquals(ImplOther.class, providers.get(otherSpi).get("other").getType());
+    }
+
+    @Test
+    void loadAllProviders_reportsErrorsOfAllSpis() {
+        var loaders = Map.of(
+                TestSpi.class, ProviderFixtures.serviceLoaderOf(TestSpi.class, ImplA.class, ImplAliasDup.class),
+                OtherSpi.class, ProviderFixtures.serviceLoaderOf(OtherSpi.class, OtherNoAnno.class));
+
+        var ex = assertThrows(
+                IllegalStateException.class,
+                () -> ProviderLoader.loadAllProviders(
+                        List.of(TypeRef.of(TestSpi.class), TypeRef.of(OtherSpi.class)), loaders::get, true));
+        assertTrue(ex.getMessage().contains("for the id or alias a"));
+        assertTrue(ex.getMessage().contains(OtherNoAnno.class.getName() + " is missing the @Provider annotation"));
+        assertEquals(2, ex.getSuppressed().length);
+    }
+
     @Nested
     class PriorityAndStabilityChecks {
         @Provider(id = "same", priority = 1)
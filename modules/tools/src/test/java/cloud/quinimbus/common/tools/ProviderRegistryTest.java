@@ -0,0 +1,70 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import cloud.quinimbus.common.tools.ProviderLoaderTest.ImplA;
+import cloud.quinimbus.common.tools.ProviderLoaderTest.ImplAliasDup;
+import cloud.quinimbus.common.tools.ProviderLoaderTest.ImplB;
+import cloud.quinimbus.common.tools.ProviderLoaderTest.TestSpi;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.ServiceLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+
+class ProviderRegistryTest {
+
+    @Test
+    void sourcesCanBeAddedAndRemoved_publishingNewSnapshots(@TempDir Path dir) throws IOException {
+        try (var first = ProviderFixtures.indexedClassLoader(dir.resolve("first"), TestSpi.class, ImplA.class);
+                var second = ProviderFixtures.indexedClassLoader(
+                        dir.resolve("second"), TestSpi.class, ImplB.class, ImplA.class);
+                MockedStatic<ServiceLoader> mocked = mockStatic(ServiceLoader.class)) {
+            mocked.when(() -> ServiceLoader.load(TestSpi.class, first))
+                    .thenReturn(ProviderFixtures.serviceLoaderOf(TestSpi.class, ImplA.class));
+            mocked.when(() -> ServiceLoader.load(TestSpi.class, second))
+                    .thenReturn(ProviderFixtures.serviceLoaderOf(TestSpi.class, ImplB.class, ImplA.class));
+            var registry = ProviderRegistry.create(TestSpi.class, true);
+            assertEquals(0, registry.snapshot().version());
+            assertTrue(registry.providers().isEmpty());
+
+            var snapshot = registry.add(first);
+            assertEquals(1, snapshot.version());
+            assertEquals(List.of("a", "aa", "A"), List.copyOf(snapshot.providers().keySet()));
+
+            var next = registry.add(second);
+            assertEquals(2, next.version());
+            assertEquals(List.of("a", "aa", "A", "b", "bb"), List.copyOf(next.providers().keySet()));
+            assertSame(snapshot.providers().get("a"), next.providers().get("a"));
+            assertSame(next, registry.snapshot());
+
+            registry.remove(first);
+            assertEquals(List.of("a", "aa", "A", "b", "bb"), List.copyOf(registry.providers().keySet()));
+            registry.remove(second);
+            assertTrue(registry.providers().isEmpty());
+            assertEquals(4, registry.snapshot().version());
+        }
+    }
+
+    @Test
+    void invalidChange_keepsPreviousSnapshot(@TempDir Path dir) throws IOException {
+        try (var first = ProviderFixtures.indexedClassLoader(dir.resolve("first"), TestSpi.class, ImplA.class);
+                var conflicting = ProviderFixtures.indexedClassLoader(
+                        dir.resolve("conflicting"), TestSpi.class, ImplAliasDup.class);
+                MockedStatic<ServiceLoader> mocked = mockStatic(ServiceLoader.class)) {
+            mocked.when(() -> ServiceLoader.load(TestSpi.class, first))
+                    .thenReturn(ProviderFixtures.serviceLoaderOf(TestSpi.class, ImplA.class));
+            mocked.when(() -> ServiceLoader.load(TestSpi.class, conflicting))
+                    .thenReturn(ProviderFixtures.serviceLoaderOf(TestSpi.class, ImplAliasDup.class));
+            var registry = ProviderRegistry.create(TestSpi.class, true);
+            var snapshot = registry.add(first);
+
+            var ex = assertThrows(IllegalStateException.class, () -> registry.add(conflicting));
+            assertTrue(ex.getMessage().contains("for the id or alias a"));
+            assertSame(snapshot, registry.snapshot());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cloud.quinimbus.tools.function.LazySingletonSupplier;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ProviderTableTest {
+
+    @Test
+    void handles_resolveIdsAndAliases_inPriorityOrder() {
+        var a = new LazySingletonSupplier<>(() -> "A", String.class);
+        var b = new LazySingletonSupplier<>(() -> "B", String.class);
+        var map = new LinkedHashMap<String, LazySingletonSupplier<String>>();
+        map.put("a", a);
+        map.put("aa", a);
+        map.put("b", b);
+        map.put("bb", b);
+        var table = ProviderTable.of(map);
+
+        assertEquals(2, table.size());
+        assertEquals(0, table.handle("a"));
+        assertEquals(0, table.handle("aa"));
+        assertEquals(1, table.handle("bb"));
+        assertEquals(ProviderTable.NO_PROVIDER, table.handle("c"));
+        assertSame(b, table.provider(table.handle("b")));
+        assertEquals("A", table.get(table.handle("aa")));
+        assertEquals("b", table.id(1));
+        assertEquals(List.of(a, b), table.providers());
+        assertSame(map, table.asMap());
+    }
+
+    @Test
+    void manyKeys_areAllResolvable() {
+        var map = new LinkedHashMap<String, LazySingletonSupplier<Integer>>();
+        IntStream.range(0, 1000).forEach(i -> map.put("id" + i, new LazySingletonSupplier<>(() -> i, Integer.class)));
+        var table = ProviderTable.of(map);
+        IntStream.range(0, 1000).forEach(i -> assertEquals(Integer.valueOf(i), table.get(table.handle("id" + i))));
+        var empty = ProviderTable.of(new LinkedHashMap<String, LazySingletonSupplier<Integer>>());
+        assertEquals(ProviderTable.NO_PROVIDER, empty.handle("x"));
+    }
+}
@@ -0,0 +1,138 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.foreign.Arena;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class RecordCodecTest {
+
+    public record MyUnsupportedRecord(Map<String, String> map) {}
+
+    private static MyCodecTestRecord record(int i) {
+        return new MyCodecTestRecord(
+                i,
+                Long.MAX_VALUE - i,
+                i / 3.0,
+                i % 2 == 0,
+                'ß',
+                "Grüße 😀 " + i,
+                i % 3 == 0 ? null : i,
+                DayOfWeek.of(i % 7 + 1),
+                new UUID(i, -i),
+                Instant.ofEpochSecond(1_700_000_000L + i, i),
+                new MyTestRecord("nested"),
+                Arrays.asList(new MyTestRecord("a"), null, new MyTestRecord(null)));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        var codec = RecordCodec.of(MyCodecTestRecord.class);
+        var buffer = ByteBuffer.allocate(1024);
+        codec.encode(record(1), buffer);
+        codec.encode(new MyCodecTestRecord(0, 0, 0, false, 'a', null, null, null, null, null, null, null), buffer);
+        buffer.flip();
+        assertEquals(record(1), codec.decode(buffer));
+        assertEquals(
+                new MyCodecTestRecord(0, 0, 0, false, 'a', null, null, null, null, null, null, null),
+                codec.decode(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testMemorySegment() {
+        var codec = RecordCodec.of(MyCodecTestRecord.class);
+        try (var arena = Arena.ofConfined()) {
+            var segment = arena.allocate(1024);
+            var next = codec.encode(record(2), segment, 16);
+            assertTrue(next > 16);
+            var end = codec.encode(record(3), segment, next);
+            assertEquals(record(2), codec.decode(segment, 16));
+
+            var decoded = new ArrayList<MyCodecTestRecord>();
+            var decodedEnd = codec.decode(segment, codec.decode(segment, 16, decoded::add), decoded::add);
+            assertEquals(List.of(record(2), record(3)), decoded);
+            assertEquals(end, decodedEnd);
+        }
+    }
+
+    @Test
+    public void testStream() {
+        var codec = RecordCodec.of(MyCodecTestRecord.class);
+        var records = IntStream.range(0, 50).mapToObj(RecordCodecTest::record).toList();
+        var decoded = new ArrayList<MyCodecTestRecord>();
+        var buffer = ByteBuffer.allocateDirect(512);
+        int next = 0;
+        boolean header = true;
+        while (next < records.size()) {
+            buffer.clear();
+            if (header) {
+                codec.writeHeader(buffer);
+            }
+            next = codec.encode(records, next, buffer);
+            buffer.flip();
+            if (header) {
+                codec.readHeader(buffer);
+                header = false;
+            }
+            codec.decodeAll(buffer, decoded::add);
+        }
+        assertEquals(records, decoded);
+    }
+
+    @Test
+    public void testDirectBufferStrings() {
+        var codec = RecordCodec.of(MyTestRecord.class);
+        var values = List.of("", "plain", "Grüße €", "😀 x 😀", "\ud83d broken");
+        var buffer = ByteBuffer.allocateDirect(256);
+        values.forEach(v -> codec.encode(new MyTestRecord(v), buffer));
+        buffer.flip();
+        assertEquals(
+                List.of("", "plain", "Grüße €", "😀 x 😀", "? broken"),
+                values.stream().map(_ -> codec.decode(buffer).strField()).toList());
+        assertFalse(buffer.hasRemaining());
+
+        var malformed = new byte[] {(byte) 0xC3, 0x28, (byte) 0xE0, (byte) 0x80, (byte) 0x80, 'a'};
+        buffer.clear().put((byte) 1).putInt(malformed.length).put(malformed).flip();
+        assertEquals(new String(malformed, StandardCharsets.UTF_8), codec.decode(buffer).strField());
+    }
+
+    @Test
+    public void testTruncatedString() {
+        var codec = RecordCodec.of(MyTestRecord.class);
+        var buffer = ByteBuffer.allocate(64);
+        codec.encode(new MyTestRecord("Grüße"), buffer);
+        buffer.flip().limit(buffer.limit() - 1);
+        assertThrows(BufferUnderflowException.class, () -> codec.decode(buffer));
+
+        var negative = ByteBuffer.allocate(64).put((byte) 1).putInt(-1).flip();
+        assertThrows(BufferUnderflowException.class, () -> codec.decode(negative));
+    }
+
+    @Test
+    public void testFingerprint() {
+        var codec = RecordCodec.of(MyCodecTestRecord.class);
+        assertEquals(codec.fingerprint(), RecordCodec.of(MyCodecTestRecord.class).fingerprint());
+        assertNotEquals(codec.fingerprint(), RecordCodec.of(MyTestRecord.class).fingerprint());
+        var buffer = ByteBuffer.allocate(16);
+        RecordCodec.of(MyTestRecord.class).writeHeader(buffer);
+        buffer.flip();
+        assertThrows(IllegalStateException.class, () -> codec.readHeader(buffer));
+    }
+
+    @Test
+    public void testUnsupportedType() {
+        assertThrows(IllegalArgumentException.class, () -> RecordCodec.of(MyUnsupportedRecord.class));
+    }
+}
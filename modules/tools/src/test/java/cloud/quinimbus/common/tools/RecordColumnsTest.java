@@ -0,0 +1,62 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class RecordColumnsTest {
+
+    @Test
+    public void testExtractPrimitiveColumns() {
+        var records = IntStream.range(0, RecordColumns.PARALLEL_THRESHOLD * 4 + 3)
+                .mapToObj(i -> new MyNumericTestRecord(i, i * 2L, i / 2.0, i % 2 == 0))
+                .toList();
+        var columns = RecordColumns.extract(
+                MyNumericTestRecord.class, records, List.of("intField", "longField", "doubleField"));
+
+        assertEquals(records.size(), columns.size());
+        var ints = columns.intColumn("intField");
+        var longs = columns.longColumn("longField");
+        var doubles = columns.doubleColumn("doubleField");
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i, ints[i]);
+            assertEquals(i * 2L, longs[i]);
+            assertEquals(i / 2.0, doubles[i]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> columns.longColumn("intField"));
+    }
+
+    @Test
+    public void testExtractUnorderedFields() {
+        var records = List.of(new MyNumericTestRecord(1, 2L, 3.0, true), new MyNumericTestRecord(4, 5L, 6.0, false));
+        var columns = RecordColumns.extract(MyNumericTestRecord.class, records, Set.of("longField", "intField"));
+
+        assertArrayEquals(new int[] {1, 4}, columns.intColumn("intField"));
+        assertArrayEquals(new long[] {2L, 5L}, columns.longColumn("longField"));
+        var ex = assertThrows(IllegalArgumentException.class, () -> columns.doubleColumn("doubleField"));
+        assertTrue(ex.getMessage().endsWith("[intField, longField]"), ex.getMessage());
+    }
+
+    @Test
+    public void testExtractDictionaryEncodedStrings() {
+        var records = List.of(
+                new MyTestRecord("a"), new MyTestRecord("b"), new MyTestRecord(null), new MyTestRecord("a"));
+        var column =
+                RecordColumns.extract(MyTestRecord.class, records.stream(), List.of("strField")).stringColumn("strField");
+
+        assertArrayEquals(new String[] {"a", "b"}, column.dictionary());
+        assertArrayEquals(new int[] {0, 1, -1, 0}, column.codes());
+        assertNull(column.value(2));
+        assertEquals("a", column.value(3));
+    }
+
+    @Test
+    public void testUnsupportedComponentType() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> RecordColumns.extract(MyNumericTestRecord.class, List.of(), List.of("booleanField")));
+    }
+}
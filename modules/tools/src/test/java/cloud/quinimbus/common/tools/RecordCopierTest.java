@@ -0,0 +1,43 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class RecordCopierTest {
+
+    @Test
+    public void testWith() {
+        var copier = RecordCopier.of(MyNumericTestRecord.class);
+        var record = new MyNumericTestRecord(1, 2L, 3.0, true);
+        assertEquals(new MyNumericTestRecord(1, 5L, 3.0, true), copier.with(record, "longField", 5L));
+        assertEquals(new MyNumericTestRecord(1, 2L, 3.0, false), copier.with(record, 3, false));
+        assertEquals(new MyTestRecord(null), RecordCopier.of(MyTestRecord.class).with(new MyTestRecord("a"), 0, null));
+        assertEquals(
+                new MyTestRecord(null),
+                RecordCopier.of(MyTestRecord.class).with(new MyTestRecord("a"), new int[] {0}, new Object[] {null}));
+    }
+
+    @Test
+    public void testWithSeveral() {
+        var copier = RecordCopier.of(MyNumericTestRecord.class);
+        var record = new MyNumericTestRecord(1, 2L, 3.0, true);
+        assertEquals(
+                new MyNumericTestRecord(7, 2L, 0.5, true),
+                copier.with(record, Map.of("intField", 7, "doubleField", 0.5)));
+        assertEquals(
+                new MyNumericTestRecord(1, 9L, 3.0, false),
+                copier.with(record, new int[] {1, 3}, new Object[] {9L, false}));
+    }
+
+    @Test
+    public void testInvalidValues() {
+        var copier = RecordCopier.of(MyNumericTestRecord.class);
+        var record = new MyNumericTestRecord(1, 2L, 3.0, true);
+        assertThrows(IllegalArgumentException.class, () -> copier.with(record, "longField", 5));
+        assertThrows(IllegalArgumentException.class, () -> copier.with(record, "intField", null));
+        assertThrows(IllegalArgumentException.class, () -> copier.with(record, "unknown", 1));
+        assertThrows(IllegalArgumentException.class, () -> copier.with(record, 4, 1));
+    }
+}
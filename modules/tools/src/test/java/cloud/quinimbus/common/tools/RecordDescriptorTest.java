@@ -0,0 +1,65 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cloud.quinimbus.common.annotations.modelling.Searchable;
+import cloud.quinimbus.common.tools.RecordDescriptor.Component;
+import cloud.quinimbus.common.tools.RecordDescriptor.Ownership;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class RecordDescriptorTest {
+
+    private static final List<Component> EXPECTED_COMPONENTS = List.of(
+            new Component("key", String.class, "key", false, false, null),
+            new Component("name", String.class, null, true, true, null),
+            new Component("owner", String.class, null, false, false, MySearchableTestRecord.class),
+            new Component("count", int.class, null, false, false, null));
+
+    @Test
+    public void testIndexedDescriptor() {
+        var descriptor = RecordDescriptor.of(MyDescribedTestRecord.class);
+        assertTrue(descriptor.indexed());
+        assertEquals("myDescribedTestRecord", descriptor.id());
+        assertEquals("myDescribedTestRecords", descriptor.pluralId());
+        assertEquals(EXPECTED_COMPONENTS, descriptor.components());
+        assertEquals(Optional.of(new Ownership(MySearchableTestRecord.class, "owner")), descriptor.owner());
+        assertEquals("key", descriptor.idComponent().orElseThrow().name());
+        assertEquals(List.of("name"), descriptor.searchableComponents().stream().map(Component::name).toList());
+        assertEquals("myDescribedTestRecords", Records.pluralIdFromRecordClass(MyDescribedTestRecord.class));
+    }
+
+    @Test
+    public void testReflectedDescriptor() {
+        var descriptor = RecordDescriptor.of(MyOwnedTestRecord.class);
+        assertFalse(descriptor.indexed());
+        assertEquals("myOwnedTestRecord", descriptor.id());
+        assertEquals(Optional.of(new Ownership(MySearchableTestRecord.class, "owner")), descriptor.owner());
+        assertEquals(
+                List.of(
+                        new Component("id", String.class, "id", false, false, null),
+                        new Component("owner", String.class, null, false, false, null)),
+                descriptor.components());
+        assertEquals(Optional.empty(), RecordDescriptor.of(MyTestRecord.class).idComponent());
+    }
+
+    @Test
+    public void testIndexedAnnotationsAreUsed() {
+        var searchable = RecordComponents.of(MyDescribedTestRecord.class).annotatedWith(Searchable.class);
+        assertEquals(List.of("name"), searchable.stream().map(RecordComponents.Component::name).toList());
+        var index = OwnershipIndex.of(MyDescribedTestRecord.class);
+        index.put(new MyDescribedTestRecord("k", "n", "o", 1));
+        assertEquals(Set.of("k"), index.children(MyDescribedTestRecord.class, "o"));
+    }
+
+    @Test
+    public void testStaleDescriptorIsRejected() {
+        var ex = assertThrows(
+                IllegalStateException.class, () -> RecordDescriptor.of(MyStaleDescribedTestRecord.class));
+        assertTrue(ex.getMessage().contains("java.lang.String key, java.lang.String name"), ex.getMessage());
+        var components = RecordComponents.of(MyStaleDescribedTestRecord.class);
+        assertThrows(IllegalStateException.class, () -> components.annotatedWith(Searchable.class));
+    }
+}
@@ -0,0 +1,34 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class RecordDifferTest {
+
+    @Test
+    public void testChanges() {
+        var differ = RecordDiffer.of(MyNumericTestRecord.class);
+        var record = new MyNumericTestRecord(1, 2L, Double.NaN, true);
+        assertEquals(0, differ.changes(record, record));
+        assertEquals(0, differ.changes(record, new MyNumericTestRecord(1, 2L, Double.NaN, true)));
+        assertEquals(
+                differ.mask("longField", "booleanField"),
+                differ.changes(record, new MyNumericTestRecord(1, 3L, Double.NaN, false)));
+        assertEquals(0b0100, differ.changes(record, new MyNumericTestRecord(1, 2L, 0.0, true)));
+    }
+
+    @Test
+    public void testDiff() {
+        var differ = RecordDiffer.of(MyTestRecord.class);
+        assertTrue(differ.diff(new MyTestRecord("a"), new MyTestRecord("a")).isEmpty());
+        assertTrue(differ.diff(new MyTestRecord(null), new MyTestRecord(null)).isEmpty());
+        var changes = differ.diff(new MyTestRecord("a"), new MyTestRecord(null)).orElseThrow();
+        assertEquals(List.of("strField"), changes.changedFields());
+        assertTrue(changes.isChanged("strField"));
+        assertEquals("a", changes.oldValue("strField"));
+        assertNull(changes.newValue("strField"));
+        assertThrows(IllegalArgumentException.class, () -> changes.isChanged("unknown"));
+    }
+}
@@ -0,0 +1,82 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cloud.quinimbus.common.tools.RecordPaths.Nulls;
+import cloud.quinimbus.common.tools.RecordPaths.SortKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class RecordPathsTest {
+
+    public static record Address(String city, int zip) {}
+
+    public static record Person(String name, Address address, long age) {}
+
+    @Test
+    public void testAccessor() {
+        var city = RecordPaths.<Person, String>accessor(Person.class, "address.city");
+        assertEquals("Berlin", city.apply(new Person("a", new Address("Berlin", 10115), 30)));
+        assertNull(city.apply(new Person("a", null, 30)));
+        var zip = RecordPaths.<Person, Integer>accessor(Person.class, "address.zip");
+        assertEquals(Integer.valueOf(10115), zip.apply(new Person("a", new Address("Berlin", 10115), 30)));
+        assertNull(zip.apply(new Person("a", null, 30)));
+        assertEquals("a", RecordPaths.accessor(Person.class, "name").apply(new Person("a", null, 30)));
+    }
+
+    @Test
+    public void testInvalidPaths() {
+        assertThrows(IllegalArgumentException.class, () -> RecordPaths.accessor(Person.class, "address.street"));
+        assertThrows(IllegalArgumentException.class, () -> RecordPaths.accessor(Person.class, "name.length"));
+        assertThrows(IllegalArgumentException.class, () -> RecordPaths.comparator(Person.class, "address"));
+    }
+
+    @Test
+    public void testComparator() {
+        var berlin = new Person("b", new Address("Berlin", 10115), 30);
+        var bonn = new Person("a", new Address("Bonn", 53111), 30);
+        var nowhere = new Person("c", null, 20);
+        var unnamed = new Person(null, new Address(null, 0), 40);
+        var people = List.of(unnamed, nowhere, bonn, berlin);
+
+        assertEquals(
+                List.of(berlin, bonn, unnamed, nowhere),
+                people.stream()
+                        .sorted(RecordPaths.comparator(Person.class, "address.city"))
+                        .toList());
+        assertEquals(
+                List.of(unnamed, nowhere, bonn, berlin),
+                people.stream()
+                        .sorted(RecordPaths.comparator(
+                                Person.class,
+                                SortKey.descending("address.city").withNulls(Nulls.FIRST)))
+                        .toList());
+        assertEquals(
+                List.of(nowhere, bonn, berlin, unnamed),
+                people.stream()
+                        .sorted(RecordPaths.comparator(Person.class, "age", "name"))
+                        .toList());
+        assertEquals(
+                List.of(unnamed, berlin, bonn, nowhere),
+                people.stream()
+                        .sorted(RecordPaths.comparator(Person.class, "address.zip"))
+                        .toList());
+        assertSame(
+                RecordPaths.comparator(Person.class, "age", "name"),
+                RecordPaths.comparator(Person.class, "age", "name"));
+    }
+
+    @Test
+    public void testParallelSorted() {
+        var people = new ArrayList<Person>();
+        IntStream.range(0, 20_000)
+                .forEach(i -> people.add(new Person("p" + i, new Address("c" + (i % 7), i), (i * 31L) % 997)));
+        var comparator =
+                RecordPaths.comparator(Person.class, SortKey.descending("age"), SortKey.ascending("address.zip"));
+        var expected = people.stream().sorted(comparator).toList();
+        assertEquals(expected, RecordPaths.parallelSorted(people, comparator));
+        assertEquals(20_000, people.size());
+    }
+}
@@ -9,6 +9,19 @@ public class RecordsTest {
     @Test
     public void testIdFromRecordClass() {
         assertEquals("myTestRecord", Records.idFromRecordClass(MyTestRecord.class));
+        assertSame(Records.idFromRecordClass(MyTestRecord.class), Records.idFromClass(MyTestRecord.class));
+    }
+
+    @Test
+    public void testPluralIdFromRecordClass() {
+        assertEquals("myTestRecords", Records.pluralIdFromRecordClass(MyTestRecord.class));
+    }
+
+    @Test
+    public void testIdFromType() {
+        NamedType type = () -> "Entry";
+        assertEquals("entry", Records.idFromType(type));
+        assertSame(Records.idFromType(type), Records.idFromType(type));
     }
 
     @Test
@@ -17,4 +30,34 @@ public class RecordsTest {
         var fieldValueGetter = Records.fieldValueGetter(MyTestRecord.class, "strField");
         assertEquals("TEST", fieldValueGetter.apply(r));
     }
+
+    @Test
+    public void testFieldValueGetterFallsBackToPublicMethods() {
+        var r = new MyTestRecord("TEST");
+        assertEquals(
+                "MyTestRecord[strField=TEST]",
+                Records.fieldValueGetter(MyTestRecord.class, "toString").apply(r));
+        assertEquals(
+                MyNumericTestRecord.class,
+                Records.fieldValueGetter(MyNumericTestRecord.class, "getClass")
+                        .apply(new MyNumericTestRecord(1, 2L, 3.0, false)));
+    }
+
+    @Test
+    public void testFieldValueGetterUnknownField() {
+        assertThrows(IllegalArgumentException.class, () -> Records.fieldValueGetter(MyTestRecord.class, "unknown"));
+    }
+
+    @Test
+    public void testPrimitiveFieldValueGetters() {
+        var r = new MyNumericTestRecord(42, 4711L, 0.5, true);
+        assertEquals(42, Records.intFieldValueGetter(MyNumericTestRecord.class, "intField").applyAsInt(r));
+        assertEquals(4711L, Records.longFieldValueGetter(MyNumericTestRecord.class, "longField").applyAsLong(r));
+        assertEquals(42L, Records.longFieldValueGetter(MyNumericTestRecord.class, "intField").applyAsLong(r));
+        assertEquals(0.5, Records.doubleFieldValueGetter(MyNumericTestRecord.class, "doubleField").applyAsDouble(r));
+        assertTrue(Records.booleanFieldValueGetter(MyNumericTestRecord.class, "booleanField").test(r));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> Records.intFieldValueGetter(MyNumericTestRecord.class, "longField"));
+    }
 }
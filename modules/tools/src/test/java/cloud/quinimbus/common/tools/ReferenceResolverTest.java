@@ -0,0 +1,78 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class ReferenceResolverTest {
+
+    private static class RecordingLoader implements ReferenceLoader {
+
+        private final List<Set<Object>> calls = new ArrayList<>();
+
+        @Override
+        public <R> Map<Object, R> loadAll(Class<R> type, Set<Object> ids) {
+            assertEquals(MyTestRecord.class, type);
+            this.calls.add(ids);
+            return ids.stream()
+                    .filter(id -> !"missing".equals(id))
+                    .collect(Collectors.toMap(Function.identity(), id -> type.cast(new MyTestRecord((String) id))));
+        }
+    }
+
+    private static final List<MyReferencingTestRecord> RECORDS = List.of(
+            new MyReferencingTestRecord("1", "a", List.of("b", "c")),
+            new MyReferencingTestRecord("2", "b", List.of("a", "missing")),
+            new MyReferencingTestRecord("3", null, List.of()));
+
+    @Test
+    public void testPrefetchLoadsDistinctIdsInOneCall() {
+        var loader = new RecordingLoader();
+        var resolver = ReferenceResolver.create(loader);
+
+        resolver.prefetch(MyReferencingTestRecord.class, RECORDS);
+
+        assertEquals(List.of(Set.of("a", "b", "c", "missing")), loader.calls);
+        assertEquals(Optional.of(new MyTestRecord("a")), resolver.referenced(RECORDS.get(0), "owner"));
+        assertEquals(Optional.empty(), resolver.referenced(RECORDS.get(2), "owner"));
+        assertEquals(List.of(new MyTestRecord("a")), resolver.referencedAll(RECORDS.get(1), "friends"));
+        assertEquals(1, loader.calls.size());
+    }
+
+    @Test
+    public void testBatchSize() {
+        var loader = new RecordingLoader();
+        var resolver = ReferenceResolver.create(loader).withBatchSize(3);
+
+        resolver.prefetch(MyReferencingTestRecord.class, RECORDS);
+        resolver.prefetch(MyReferencingTestRecord.class, RECORDS);
+
+        assertEquals(2, loader.calls.size());
+        assertEquals(3, loader.calls.get(0).size());
+        assertEquals(1, loader.calls.get(1).size());
+    }
+
+    @Test
+    public void testUnresolvedIdsAreLoadedOnDemand() {
+        var loader = new RecordingLoader();
+        var resolver = ReferenceResolver.create(loader);
+
+        assertEquals(Optional.of(new MyTestRecord("b")), resolver.referenced(RECORDS.get(1), "owner"));
+        assertEquals(Optional.of(new MyTestRecord("b")), resolver.resolve(MyTestRecord.class, "b"));
+        assertEquals(List.of(Set.of("b")), loader.calls);
+        assertThrows(IllegalArgumentException.class, () -> resolver.referenced(RECORDS.get(0), "id"));
+    }
+
+    @Test
+    public void testUnknownLoaderId() {
+        var ex = assertThrows(IllegalStateException.class, () -> ReferenceResolver.create("unknown"));
+        assertTrue(ex.getMessage().contains("with the id unknown, known are []"), ex.getMessage());
+    }
+}
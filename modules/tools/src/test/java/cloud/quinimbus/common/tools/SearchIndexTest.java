@@ -0,0 +1,87 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SearchIndexTest {
+
+    private static SearchIndex<MySearchableTestRecord> index() {
+        var index = SearchIndex.of(MySearchableTestRecord.class);
+        index.putAll(List.of(
+                new MySearchableTestRecord("1", "Quick brown fox", List.of("animal", "Forest")),
+                new MySearchableTestRecord("2", "Lazy brown dog", List.of("animal")),
+                new MySearchableTestRecord("3", "Foxglove flower", List.of())));
+        return index;
+    }
+
+    private static List<String> ids(List<MySearchableTestRecord> records) {
+        return records.stream().map(MySearchableTestRecord::id).toList();
+    }
+
+    @Test
+    public void testSearch() {
+        var index = index();
+        assertEquals(List.of("1", "2"), ids(index.search("Brown")));
+        assertEquals(List.of("1"), ids(index.search("brown forest")));
+        assertEquals(List.of(), ids(index.search("brown cat")));
+        assertEquals(List.of(), ids(index.search("  ")));
+    }
+
+    @Test
+    public void testSearchPrefix() {
+        var index = index();
+        assertEquals(List.of("1", "3"), ids(index.searchPrefix("fox")));
+        assertEquals(List.of("3"), ids(index.searchPrefix("fox flo")));
+    }
+
+    @Test
+    public void testSearchSubstring() {
+        var index = index();
+        assertEquals(List.of("3"), ids(index.searchSubstring("glove")));
+        assertEquals(List.of("1", "2"), ids(index.searchSubstring("row")));
+        assertEquals(List.of("1", "3"), ids(index.searchSubstring("ox")));
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        var index = index();
+        index.put(new MySearchableTestRecord("2", "Sleepy cat", List.of()));
+        assertEquals(List.of("1"), ids(index.search("brown")));
+        assertEquals(List.of("2"), ids(index.search("cat")));
+        assertEquals("Sleepy cat", index.search("cat").getFirst().title());
+
+        assertTrue(index.remove("1"));
+        assertFalse(index.remove("1"));
+        assertEquals(2, index.size());
+        assertEquals(List.of(), ids(index.searchSubstring("brow")));
+
+        index.put(new MySearchableTestRecord("4", "Brown bear", List.of()));
+        assertEquals(List.of("4"), ids(index.search("brown")));
+    }
+
+    @Test
+    public void testReplacedTokensReuseTermIds() {
+        var index = index();
+        var capacity = index.termIdCapacity();
+        for (int i = 0; i < 100; i++) {
+            index.put(new MySearchableTestRecord("4", "token" + i, List.of()));
+            index.remove("4");
+        }
+        assertEquals(capacity + 1, index.termIdCapacity());
+        index.put(new MySearchableTestRecord("4", "Foxtrot", List.of()));
+        assertEquals(List.of("1", "3", "4"), ids(index.searchSubstring("fox")));
+        assertEquals(List.of("4"), ids(index.searchSubstring("tro")));
+    }
+
+    @Test
+    public void testRecordWithoutSearchableComponent() {
+        assertThrows(IllegalArgumentException.class, () -> SearchIndex.of(MyTestRecord.class));
+    }
+
+    @Test
+    public void testTokens() {
+        assertEquals(List.of("hello", "world", "42"), SearchIndex.tokens("Hello, World-42!"));
+    }
+}
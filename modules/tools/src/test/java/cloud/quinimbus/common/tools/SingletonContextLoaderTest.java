@@ -0,0 +1,172 @@
+package cloud.quinimbus.common.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import cloud.quinimbus.common.tools.SingletonContextLoader.ContextScope;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+public class SingletonContextLoaderTest {
+
+    interface FirstContext {}
+
+    interface SecondContext {}
+
+    interface MissingContext {}
+
+    interface OuterContext {}
+
+    interface InnerContext {}
+
+    interface CyclicContext {}
+
+    interface CrossFirstContext {}
+
+    interface CrossSecondContext {}
+
+    interface ResettableContext {}
+
+    interface TenantContext {
+        String tenant();
+    }
+
+    record Tenant(String tenant) implements TenantContext {}
+
+    interface SharedContext {}
+
+    private static <T> ServiceLoader<T> serviceLoaderOf(Optional<T> instance) {
+        ServiceLoader<T> sl = mock(ServiceLoader.class);
+        when(sl.findFirst()).thenReturn(instance);
+        return sl;
+    }
+
+    private static ServiceLoader<?> serviceLoaderFor(Class<?> cls) {
+        if (cls == MissingContext.class) {
+            return serviceLoaderOf(Optional.empty());
+        }
+        return serviceLoaderOf(Optional.<Object>of(mock(cls)));
+    }
+
+    /// Loads the other cross context while creating one, after both creations have started.
+    private static ServiceLoader<?> crossDependentServiceLoader(Class<?> cls, CountDownLatch started) {
+        started.countDown();
+        try {
+            started.await();
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+        Class other = cls == CrossFirstContext.class ? CrossSecondContext.class : CrossFirstContext.class;
+        Function<Class<?>, ServiceLoader<?>> loader = c -> crossDependentServiceLoader(c, started);
+        SingletonContextLoader.loadContext(other, (Function) loader);
+        return serviceLoaderFor(cls);
+    }
+
+    @Test
+    public void testPrewarmLoadsAllContexts() {
+        var report = SingletonContextLoader.prewarm(
+                List.of(FirstContext.class, SecondContext.class),
+                SingletonContextLoaderTest::serviceLoaderFor,
+                Duration.ofSeconds(10));
+
+        assertEquals(List.of(FirstContext.class, SecondContext.class), List.copyOf(report.durations().keySet()));
+        assertSame(
+                SingletonContextLoader.loadContext(FirstContext.class, c -> fail("context should be loaded")),
+                SingletonContextLoader.loadContext(FirstContext.class, c -> fail("context should be loaded")));
+    }
+
+    @Test
+    public void testPrewarmAggregatesFailures() {
+        var ex = assertThrows(
+                IllegalStateException.class,
+                () -> SingletonContextLoader.prewarm(
+                        List.of(MissingContext.class),
+                        SingletonContextLoaderTest::serviceLoaderFor,
+                        Duration.ofSeconds(10)));
+        assertTrue(ex.getMessage().contains(MissingContext.class.getName()));
+        assertEquals(1, ex.getSuppressed().length);
+    }
+
+    @Test
+    public void testContextCreationMayLoadOtherContexts() {
+        var outer = SingletonContextLoader.loadContext(OuterContext.class, c -> {
+            assertNotNull(SingletonContextLoader.loadContext(
+                    InnerContext.class, i -> serviceLoaderOf(Optional.of(mock(InnerContext.class)))));
+            return serviceLoaderOf(Optional.of(mock(OuterContext.class)));
+        });
+        assertNotNull(outer);
+    }
+
+    @Test
+    public void testCyclicContextCreationFails() {
+        var ex = assertThrows(
+                IllegalStateException.class,
+                () -> SingletonContextLoader.loadContext(CyclicContext.class, c -> {
+                    SingletonContextLoader.loadContext(
+                            CyclicContext.class, i -> serviceLoaderOf(Optional.of(mock(CyclicContext.class))));
+                    return serviceLoaderOf(Optional.of(mock(CyclicContext.class)));
+                }));
+        assertTrue(ex.getMessage().contains("Cyclic"));
+    }
+
+    @Test
+    public void testCrossThreadCyclicContextCreationFails() {
+        var started = new CountDownLatch(2);
+        var ex = assertThrows(
+                IllegalStateException.class,
+                () -> SingletonContextLoader.prewarm(
+                        List.of(CrossFirstContext.class, CrossSecondContext.class),
+                        c -> crossDependentServiceLoader(c, started),
+                        Duration.ofSeconds(10)));
+        assertEquals(2, ex.getSuppressed().length);
+        for (var cause : ex.getSuppressed()) {
+            assertTrue(cause.getMessage().contains("Cyclic"), cause.getMessage());
+        }
+    }
+
+    @Test
+    public void testReset() {
+        var first = SingletonContextLoader.loadContext(
+                ResettableContext.class, c -> serviceLoaderOf(Optional.of(mock(ResettableContext.class))));
+        SingletonContextLoader.reset(ResettableContext.class);
+        var second = SingletonContextLoader.loadContext(
+                ResettableContext.class, c -> serviceLoaderOf(Optional.of(mock(ResettableContext.class))));
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testScopedContexts() {
+        var scope = ContextScope.empty().with(TenantContext.class, new Tenant("a"));
+        var tenant = scope.call(() -> SingletonContextLoader.loadContext(
+                        TenantContext.class, c -> fail("scoped context should be used"))
+                .tenant());
+        assertEquals("a", tenant);
+        assertTrue(ContextScope.current().context(TenantContext.class).isEmpty());
+
+        scope.run(() -> ContextScope.current()
+                .with(TenantContext.class, new Tenant("b"))
+                .run(() -> assertEquals(
+                        "b",
+                        SingletonContextLoader.loadContext(TenantContext.class, c -> fail("context is scoped"))
+                                .tenant())));
+        assertEquals("a", scope.context(TenantContext.class).orElseThrow().tenant());
+        assertThrows(
+                IllegalArgumentException.class, () -> ContextScope.empty().with((Class) TenantContext.class, "a"));
+    }
+
+    @Test
+    public void testScopedContextsFallBackToGlobalSingletons() {
+        var global = SingletonContextLoader.loadContext(
+                SharedContext.class, c -> serviceLoaderOf(Optional.of(mock(SharedContext.class))));
+        ContextScope.empty()
+                .with(TenantContext.class, new Tenant("a"))
+                .run(() -> assertSame(
+                        global,
+                        SingletonContextLoader.loadContext(SharedContext.class, c -> fail("context is global"))));
+    }
+}
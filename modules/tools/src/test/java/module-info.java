@@ -3,7 +3,10 @@ open module cloud.quinimbus.common.tools {
 
     requires cloud.quinimbus.common.annotations;
     requires cloud.quinimbus.tools;
+    requires jdk.jfr;
     requires org.junit.jupiter.api;
     requires org.mockito;
     requires org.mockito.junit.jupiter;
+
+    uses cloud.quinimbus.common.tools.ReferenceLoader;
 }